@@ -0,0 +1,15 @@
+#!/bin/bash
+
+# The complement tool: complement.sh [-i input] [-o output] [-e auto|sequential|parallel] [-t threads]
+#                                    [-s none|counts|hash] [-m complement|transcribe|...]
+# Build it with: gradle cliJar cdsArchive (the archive is optional, it only speeds up startup)
+# Java options go in JAVA_OPTS, e.g. JAVA_OPTS='--add-modules jdk.incubator.vector' for the vector kernel (java 17+)
+
+DIR="$(cd "$(dirname "$0")" && pwd)"
+JAR="$DIR/build/libs/complement.jar"
+ARCHIVE="$DIR/build/cds/complement.jsa"
+
+if [ -f "$ARCHIVE" ]; then
+    exec java $JAVA_OPTS -XX:SharedArchiveFile="$ARCHIVE" -jar "$JAR" "$@"
+fi
+exec java $JAVA_OPTS -jar "$JAR" "$@"
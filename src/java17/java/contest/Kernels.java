@@ -0,0 +1,87 @@
+package contest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Picks the fastest kernels of this runtime, once, when the class is loaded.
+ *
+ * The java 17 version (META-INF/versions/17 in the multi-release jar, see src/main for the java 8 one).
+ *
+ * Java 17+: as java 9 (Strings as Latin-1 bytes), and when the JVM runs with the vector API
+ * (--add-modules jdk.incubator.vector), mappings of a few characters use the VectorKernel: a compare and
+ * blend per mapped character, on a full vector register at a time (about 3 times the table loop).
+ */
+final class Kernels {
+
+    static final boolean VECTOR_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+        && !"false".equals(System.getProperty("contest.vector"));
+
+    /** More mapped characters than this go to the table loop: every one costs a compare and blend. */
+    static final int MAX_VECTOR_ENTRIES = 8;
+
+    private Kernels() {
+    }
+
+    /**
+     * @return which kernels are used (a method, not a constant: constants are compiled into the callers)
+     */
+    static String description() {
+        return "java " + Runtime.version().feature() + (VECTOR_AVAILABLE
+            ? ": vector kernel, Strings as Latin-1 byte[]"
+            : ": table kernel (no jdk.incubator.vector), Strings as Latin-1 byte[]");
+    }
+
+    /**
+     * @param table the mapping: character c becomes table[c]
+     * @return the fastest kernel for it
+     */
+    static TranslationEngine.Kernel create(byte[] table) {
+        int entries = 0;
+        for (int c = 0; c < table.length; c++) {
+            if (table[c] != (byte) c) {
+                entries++;
+            }
+        }
+        if (!VECTOR_AVAILABLE || entries > MAX_VECTOR_ENTRIES) {
+            return new TranslationEngine.TableKernel(table);
+        }
+        try {
+            // by name: VectorKernel can only be loaded when the module is there
+            return (TranslationEngine.Kernel) Class.forName("contest.VectorKernel")
+                .getDeclaredConstructor(byte[].class).newInstance((Object) table);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create vector kernel", e);
+        }
+    }
+
+    /**
+     * Translate a String, the fastest way for the String layout of this runtime.
+     *
+     * @param engine the engine
+     * @param input the String
+     * @param pool the pool to run in, or null for sequential
+     * @return the translated String
+     */
+    static String translate(TranslationEngine engine, String input, ForkJoinPool pool) {
+        byte[] bytes = input.getBytes(StandardCharsets.ISO_8859_1);
+        if (pool == null) {
+            engine.translate(bytes, 0, bytes.length);
+        } else {
+            engine.translateParallel(bytes, 0, bytes.length, pool);
+        }
+        String result = new String(bytes, StandardCharsets.ISO_8859_1);
+
+        // characters above Latin-1 became '?': then (only then) do it again the char[] way
+        if (result.indexOf(engine.translated('?')) < 0) {
+            return result;
+        }
+        char[] chars = input.toCharArray();
+        if (pool == null) {
+            engine.translate(chars, 0, chars.length);
+        } else {
+            engine.translateParallel(chars, 0, chars.length, pool);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,25 @@
+package contest;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Bytes allocated by the calling thread, for {@link ComplementEvent}.
+ *
+ * The java 17 version (META-INF/versions/17 in the multi-release jar, see src/main for the java 8 one): no
+ * thread id needed (Thread.getId() is deprecated since java 19).
+ */
+final class ThreadAllocation {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private ThreadAllocation() {
+    }
+
+    /**
+     * @return bytes allocated by the current thread so far
+     */
+    static long allocatedBytes() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+}
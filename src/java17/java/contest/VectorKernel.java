@@ -0,0 +1,56 @@
+package contest;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Translation kernel with the vector API (java 17+, only with --add-modules jdk.incubator.vector): per
+ * vector of characters, every mapped character is compared and blended in, against the input vector.
+ * The rest (and char[], which has no vector loads before java 18) goes through the table loop.
+ */
+final class VectorKernel implements TranslationEngine.Kernel {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private final TranslationEngine.TableKernel table;
+    private final byte[] from;
+    private final byte[] to;
+
+    VectorKernel(byte[] table) {
+        this.table = new TranslationEngine.TableKernel(table);
+        int entries = 0;
+        for (int c = 0; c < table.length; c++) {
+            if (table[c] != (byte) c) {
+                entries++;
+            }
+        }
+        from = new byte[entries];
+        to = new byte[entries];
+        int entry = 0;
+        for (int c = 0; c < table.length; c++) {
+            if (table[c] != (byte) c) {
+                from[entry] = (byte) c;
+                to[entry++] = table[c];
+            }
+        }
+    }
+
+    @Override
+    public void translate(byte[] data, int from, int to) {
+        int i = from;
+        for (int upper = from + SPECIES.loopBound(to - from); i < upper; i += SPECIES.length()) {
+            ByteVector input = ByteVector.fromArray(SPECIES, data, i);
+            ByteVector output = input;
+            for (int entry = 0; entry < this.from.length; entry++) {
+                output = output.blend(this.to[entry], input.eq(this.from[entry]));
+            }
+            output.intoArray(data, i);
+        }
+        table.translate(data, i, to);
+    }
+
+    @Override
+    public void translate(char[] data, int from, int to) {
+        table.translate(data, from, to);
+    }
+}
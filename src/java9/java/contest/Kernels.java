@@ -0,0 +1,64 @@
+package contest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Picks the fastest kernels of this runtime, once, when the class is loaded.
+ *
+ * The java 9 version (META-INF/versions/9 in the multi-release jar, see src/main for the java 8 one).
+ *
+ * Java 9+: the table loop, and Strings are converted as Latin-1 bytes. Strings hold bytes now (compact
+ * strings), so getBytes / new String(bytes) with Latin-1 are plain copies, where toCharArray / new
+ * String(chars) widen and narrow every character: about twice as fast.
+ */
+final class Kernels {
+
+    private Kernels() {
+    }
+
+    /**
+     * @return which kernels are used (a method, not a constant: constants are compiled into the callers)
+     */
+    static String description() {
+        return "java " + Runtime.version().major() + ": table kernel, Strings as Latin-1 byte[]";
+    }
+
+    /**
+     * @param table the mapping: character c becomes table[c]
+     * @return the fastest kernel for it
+     */
+    static TranslationEngine.Kernel create(byte[] table) {
+        return new TranslationEngine.TableKernel(table);
+    }
+
+    /**
+     * Translate a String, the fastest way for the String layout of this runtime.
+     *
+     * @param engine the engine
+     * @param input the String
+     * @param pool the pool to run in, or null for sequential
+     * @return the translated String
+     */
+    static String translate(TranslationEngine engine, String input, ForkJoinPool pool) {
+        byte[] bytes = input.getBytes(StandardCharsets.ISO_8859_1);
+        if (pool == null) {
+            engine.translate(bytes, 0, bytes.length);
+        } else {
+            engine.translateParallel(bytes, 0, bytes.length, pool);
+        }
+        String result = new String(bytes, StandardCharsets.ISO_8859_1);
+
+        // characters above Latin-1 became '?': then (only then) do it again the char[] way
+        if (result.indexOf(engine.translated('?')) < 0) {
+            return result;
+        }
+        char[] chars = input.toCharArray();
+        if (pool == null) {
+            engine.translate(chars, 0, chars.length);
+        } else {
+            engine.translateParallel(chars, 0, chars.length, pool);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,60 @@
+package contest;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH version of the contest: every contender converts a full chain.
+ *
+ * Run with "gradle jmh", or with "gradle jmhPerf" to get hardware counters per conversion
+ * (cycles, instructions, L1/LLC misses, branch misses, using Linux perf), to see why the winners win.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class ContenderBenchmark {
+
+    /**
+     * Contender number, as in the description "(#N) ...". #9 is left out, it is not implemented.
+     */
+    @Param({"1", "2", "3", "4", "5", "6", "7", "8", "10", "11", "12", "13", "14", "15", "16", "17", "18",
+        "19", "20", "21", "23", "24", "25", "26", "27", "28"})
+    public int contender;
+
+    private Contest.Contender implementation;
+    private String input;
+
+    @Setup(Level.Trial)
+    public void selectContender() {
+        String prefix = "(#" + contender + ")";
+        implementation = Contest.getContenders().stream()
+            .filter(c -> c.getDescription().startsWith(prefix))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("No contender " + prefix));
+    }
+
+    @Setup(Level.Iteration)
+    public void generateInput() {
+        // new input every iteration, to prevent contenders from caching results
+        input = Contest.generateInput(Contest.CHAIN_SIZE);
+    }
+
+    @Benchmark
+    public String convert() {
+        return implementation.convert(input);
+    }
+}
@@ -0,0 +1,90 @@
+package contest;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The translation kernels on a full chain: the hand-written switch loop of #10 (sequential) and #16
+ * (ForkJoin), against the same loop generated at runtime, and the generic table loop.
+ *
+ * Compare with the contenders themselves: "gradle jmh -PjmhArgs='-p contender=10,16,26,27'".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class TranslationBenchmark {
+
+    @Param({"hand-written", "generated", "table"})
+    public String kernel;
+
+    private TranslationEngine.Kernel implementation;
+    private char[] chain;
+
+    @Setup(Level.Trial)
+    public void selectKernel() {
+        byte[] table = new byte[256];
+        for (int c = 0; c < table.length; c++) {
+            table[c] = (byte) c;
+        }
+        table['A'] = 'T';
+        table['T'] = 'A';
+        table['C'] = 'G';
+        table['G'] = 'C';
+
+        switch (kernel) {
+            case "hand-written":
+                implementation = new TranslationEngine.Kernel() {
+                    @Override
+                    public void translate(byte[] data, int from, int to) {
+                        ComplementKernel.complementRange(data, from, to);
+                    }
+
+                    @Override
+                    public void translate(char[] data, int from, int to) {
+                        ComplementKernel.complementRange(data, from, to);
+                    }
+                };
+                break;
+            case "generated":
+                implementation = KernelDefiner.define(KernelGenerator.generate(table));
+                break;
+            case "table":
+                implementation = new TranslationEngine.TableKernel(table);
+                break;
+            default:
+                throw new IllegalArgumentException("No kernel " + kernel);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void generateInput() {
+        chain = Contest.generateInput(Contest.CHAIN_SIZE).toCharArray();
+    }
+
+    @Benchmark
+    public char[] sequential() {
+        implementation.translate(chain, 0, chain.length);
+        return chain;
+    }
+
+    @Benchmark
+    public char[] parallel() {
+        ForkJoinPool.commonPool().invoke(new TranslationEngine.Split(implementation, null, chain, 0, chain.length));
+        return chain;
+    }
+}
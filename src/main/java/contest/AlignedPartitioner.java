@@ -0,0 +1,79 @@
+package contest;
+
+/**
+ * Split an array in parts for parallel conversion, with part boundaries on cache line (or page) boundaries.
+ *
+ * With boundaries at arbitrary offsets (like #15 with its 200 parts), two threads write to the same cache line
+ * at every boundary, and the line keeps bouncing between cores (false sharing). And parts that are much larger
+ * than the L2 cache, or very small, waste either cache or scheduling overhead.
+ *
+ * The alignment is computed for the array data address, assuming the array object itself starts on a page
+ * boundary. That is the case for large arrays (like our chain) in G1, which allocates them in their own
+ * (humongous) regions. For other collectors it is a best effort.
+ */
+public final class AlignedPartitioner {
+
+    public static final int CACHE_LINE_SIZE = 64;
+    public static final int PAGE_SIZE = 4096;
+
+    /** Conservative L2 size, per core (most current x86 have 256KB - 2MB). */
+    public static final int L2_SIZE = 256 * 1024;
+
+    /** Offset of the first element in an array object (HotSpot, 64 bit with compressed class pointers). */
+    static final int ARRAY_BASE_OFFSET = 16;
+
+    private AlignedPartitioner() {
+    }
+
+    /**
+     * Split in work units of about half the L2 size (so a unit, in and out, stays in cache), aligned to pages.
+     *
+     * @param length number of elements
+     * @param elementSize bytes per element (1 for byte[], 2 for char[])
+     * @return the part boundaries: part i runs from boundaries[i] (inclusive) to boundaries[i + 1] (exclusive)
+     */
+    public static int[] partition(int length, int elementSize) {
+        int parts = (int) Math.max(1, (long) length * elementSize / (L2_SIZE / 2));
+        return partition(length, elementSize, parts, PAGE_SIZE);
+    }
+
+    /**
+     * Split in (about) the given number of parts, with every boundary on an alignment boundary.
+     * Parts that become empty due to alignment are dropped, so fewer parts may be returned.
+     *
+     * @param length number of elements
+     * @param elementSize bytes per element (1 for byte[], 2 for char[])
+     * @param parts wanted number of parts
+     * @param alignment boundary alignment in bytes, a power of 2 (and at least 16)
+     * @return the part boundaries: part i runs from boundaries[i] (inclusive) to boundaries[i + 1] (exclusive)
+     */
+    public static int[] partition(int length, int elementSize, int parts, int alignment) {
+        if (parts < 1 || Integer.bitCount(alignment) != 1 || alignment < ARRAY_BASE_OFFSET) {
+            throw new IllegalArgumentException("parts must be positive, alignment a power of 2 (>= 16)");
+        }
+
+        int[] boundaries = new int[parts + 1];
+        int count = 1;
+        for (int i = 1; i < parts; i++) {
+            int boundary = align((int) ((long) i * length / parts), elementSize, alignment);
+            if (boundary > boundaries[count - 1]) {
+                boundaries[count++] = boundary;
+            }
+        }
+        // aligning rounds down, so all boundaries so far are below the length
+        boundaries[count++] = length;
+
+        int[] result = new int[count];
+        System.arraycopy(boundaries, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Round an index down to the nearest element that starts on an alignment boundary.
+     */
+    static int align(int index, int elementSize, int alignment) {
+        long address = ARRAY_BASE_OFFSET + (long) index * elementSize;
+        address &= -alignment;
+        return address <= ARRAY_BASE_OFFSET ? 0 : (int) ((address - ARRAY_BASE_OFFSET) / elementSize);
+    }
+}
@@ -0,0 +1,194 @@
+package contest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Complement a file with overlapping read, compute and write.
+ *
+ * A ring of reusable buffers travels from a reader thread, to a converting thread, to a writer thread,
+ * and back. So chunk N+1 is read while chunk N is converted and chunk N-1 is written, and the
+ * end-to-end throughput approaches the one of the slowest stage, instead of the sum of all three.
+ *
+ * Use at least 3 buffers for full overlap. The buffer size should be large enough for the parallel kernel
+ * to pay off (a few MB).
+ */
+public class AsyncFileComplementer {
+
+    public static final int DEFAULT_BUFFER_COUNT = 4;
+    public static final int DEFAULT_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    private final int bufferCount;
+    private final int bufferSize;
+    private final StageCounters counters = new StageCounters("read", "complement", "write");
+
+    /**
+     * A buffer, and where its contents belong in the file. The empty chunk (no buffer) marks the end.
+     */
+    private static class Chunk {
+        static final Chunk END = new Chunk(null);
+
+        final ByteBuffer buffer;
+        long position;
+
+        Chunk(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    public AsyncFileComplementer(int bufferCount, int bufferSize) {
+        if (bufferCount < 2 || bufferSize < 1) {
+            throw new IllegalArgumentException("at least 2 buffers, of a positive size, are needed");
+        }
+        this.bufferCount = bufferCount;
+        this.bufferSize = bufferSize;
+    }
+
+    public StageCounters getCounters() {
+        return counters;
+    }
+
+    /**
+     * Complement the input file into the output file (created or truncated).
+     *
+     * @param input input file
+     * @param output output file
+     * @return number of bytes converted
+     * @throws IOException on read/write error
+     * @throws InterruptedException when interrupted while waiting for the stages
+     */
+    public long run(Path input, Path output) throws IOException, InterruptedException {
+        // the end marker needs room too, so the queues get one extra slot
+        BlockingQueue<Chunk> free = new ArrayBlockingQueue<>(bufferCount + 1);
+        BlockingQueue<Chunk> filled = new ArrayBlockingQueue<>(bufferCount + 1);
+        BlockingQueue<Chunk> converted = new ArrayBlockingQueue<>(bufferCount + 1);
+        for (int i = 0; i < bufferCount; i++) {
+            free.add(new Chunk(ByteBuffer.allocate(bufferSize)));
+        }
+
+        ExecutorService threads = Executors.newFixedThreadPool(3);
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                 StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            CompletionService<Long> stages = new ExecutorCompletionService<>(threads);
+            Future<Long> reader = stages.submit(() -> read(in, free, filled));
+            stages.submit(() -> convert(filled, converted));
+            stages.submit(() -> write(out, converted, free));
+
+            for (int i = 0; i < 3; i++) {
+                try {
+                    stages.take().get();
+                } catch (ExecutionException e) {
+                    // a stage failed, the others may wait forever for a buffer: stop them all
+                    threads.shutdownNow();
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new IOException(cause);
+                }
+            }
+            return reader.get();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    private long read(FileChannel in, BlockingQueue<Chunk> free, BlockingQueue<Chunk> filled)
+        throws IOException, InterruptedException {
+        long position = 0;
+        try {
+            while (true) {
+                Chunk chunk = free.take();
+                long start = System.nanoTime();
+                ByteBuffer buffer = chunk.buffer;
+                buffer.clear();
+                while (buffer.hasRemaining() && in.read(buffer, position + buffer.position()) >= 0) {
+                    // keep reading until full, or end of file
+                }
+                buffer.flip();
+                if (!buffer.hasRemaining()) {
+                    return position;
+                }
+                chunk.position = position;
+                position += buffer.remaining();
+                counters.stage("read").add(buffer.remaining(), start);
+                filled.put(chunk);
+            }
+        } finally {
+            // also on error, so the converting thread does not wait forever
+            filled.put(Chunk.END);
+        }
+    }
+
+    private long convert(BlockingQueue<Chunk> filled, BlockingQueue<Chunk> converted) throws InterruptedException {
+        long total = 0;
+        try {
+            Chunk chunk;
+            while ((chunk = filled.take()) != Chunk.END) {
+                long start = System.nanoTime();
+                ByteBuffer buffer = chunk.buffer;
+                ComplementKernel.complementParallel(buffer.array(), 0, buffer.limit());
+                counters.stage("complement").add(buffer.limit(), start);
+                total += buffer.limit();
+                converted.put(chunk);
+            }
+        } finally {
+            converted.put(Chunk.END);
+        }
+        return total;
+    }
+
+    private long write(FileChannel out, BlockingQueue<Chunk> converted, BlockingQueue<Chunk> free)
+        throws IOException, InterruptedException {
+        long total = 0;
+        Chunk chunk;
+        while ((chunk = converted.take()) != Chunk.END) {
+            long start = System.nanoTime();
+            ByteBuffer buffer = chunk.buffer;
+            int length = buffer.remaining();
+            while (buffer.hasRemaining()) {
+                out.write(buffer, chunk.position + buffer.position());
+            }
+            counters.stage("write").add(length, start);
+            total += length;
+            free.put(chunk);
+        }
+        return total;
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args input file, output file, optional number of buffers, optional buffer size in KB
+     * @throws Exception on error
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || args.length > 4) {
+            System.err.println("Usage: AsyncFileComplementer <input> <output> [buffers] [buffer-size-kb]");
+            System.exit(2);
+        }
+        int buffers = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_BUFFER_COUNT;
+        int bufferSize = args.length > 3 ? Integer.parseInt(args[3]) * 1024 : DEFAULT_BUFFER_SIZE;
+
+        AsyncFileComplementer complementer = new AsyncFileComplementer(buffers, bufferSize);
+        long start = System.nanoTime();
+        long total = complementer.run(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.print(complementer.getCounters().report(total, System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,390 @@
+package contest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Complement a gzip compressed chain: decompress, complement, recompress.
+ *
+ * BGZF input (gzip made of independent blocks of at most 64KB, with the block size in the header) is decoded
+ * block by block in parallel. Plain gzip can only be decoded by one thread, so then only complement and
+ * compression run in parallel. Output is always BGZF, which is valid (multi member) gzip as well.
+ *
+ * Blocks are written in input order. At most "in flight" blocks are being worked on at any time, which bounds
+ * the memory used, whatever the file size.
+ *
+ * Every worker thread keeps one Inflater and one Deflater, and ends them (freeing their zlib memory) when the
+ * thread finishes at the end of run.
+ */
+public class BgzfComplementPipeline {
+
+    /** Uncompressed bytes per output block, leaves room for deflate overhead (same value as htslib). */
+    static final int BLOCK_DATA_SIZE = 0xff00;
+    static final int MAX_BLOCK_SIZE = 0x10000;
+    static final int HEADER_SIZE = 18;
+    static final int FOOTER_SIZE = 8;
+
+    /** The empty block which ends a BGZF file. */
+    static final byte[] EOF_BLOCK = {
+        0x1f, (byte) 0x8b, 0x08, 0x04, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0xff, 0x06, 0x00, 0x42, 0x43,
+        0x02, 0x00, 0x1b, 0x00, 0x03, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00
+    };
+
+    private final int threads;
+    private final int maxInFlight;
+    private final StageCounters counters = new StageCounters("read", "inflate", "complement", "deflate", "write");
+
+    private final ThreadLocal<Inflater> inflaters = new ThreadLocal<>();
+    private final ThreadLocal<Deflater> deflaters = new ThreadLocal<>();
+
+    /**
+     * @param threads number of worker threads for inflate, complement and deflate
+     * @param maxInFlight maximum number of blocks being read, converted or waiting to be written
+     */
+    public BgzfComplementPipeline(int threads, int maxInFlight) {
+        if (threads < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("threads and maxInFlight must be positive");
+        }
+        this.threads = threads;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public StageCounters getCounters() {
+        return counters;
+    }
+
+    /**
+     * Run the pipeline. The streams are not closed.
+     *
+     * @param input gzip or BGZF compressed chain
+     * @param output receives the BGZF compressed complement
+     * @return number of uncompressed bytes converted
+     * @throws IOException on read/write error, or corrupt input
+     */
+    public long run(InputStream input, OutputStream output) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(input, MAX_BLOCK_SIZE);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, this::stageThread);
+        Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+        long total = 0;
+        try {
+            if (isBgzf(in)) {
+                DataInputStream blocks = new DataInputStream(in);
+                long offset = 0;
+                byte[] block;
+                while ((block = readBlock(blocks, offset)) != null) {
+                    offset += block.length;
+                    if (uncompressedSize(block) == 0) {
+                        // (end of file) marker block, we write our own at the end
+                        continue;
+                    }
+                    final byte[] compressed = block;
+                    total += submit(executor, inFlight, () -> deflate(complement(inflate(compressed))), output);
+                }
+            } else {
+                GZIPInputStream gzip = new GZIPInputStream(in, MAX_BLOCK_SIZE);
+                byte[] data;
+                while ((data = readPlain(gzip)) != null) {
+                    final byte[] plain = data;
+                    total += submit(executor, inFlight, () -> deflate(complement(plain)), output);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                total += write(inFlight.removeFirst(), output);
+            }
+            output.write(EOF_BLOCK);
+            output.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+        return total;
+    }
+
+    /**
+     * A worker thread, which ends its Inflater and Deflater when it finishes.
+     */
+    private Thread stageThread(Runnable worker) {
+        return new Thread(() -> {
+            try {
+                worker.run();
+            } finally {
+                Inflater inflater = inflaters.get();
+                if (inflater != null) {
+                    inflater.end();
+                    inflaters.remove();
+                }
+                Deflater deflater = deflaters.get();
+                if (deflater != null) {
+                    deflater.end();
+                    deflaters.remove();
+                }
+            }
+        }, "bgzf-stage");
+    }
+
+    /**
+     * Queue a block. When the maximum is in flight, first write the oldest one (waiting for it if needed).
+     *
+     * @return the uncompressed size of the block written out, or 0 when nothing was written
+     */
+    private long submit(ExecutorService executor, Deque<Future<byte[]>> inFlight, Callable<byte[]> task,
+                        OutputStream output) throws IOException {
+        long written = 0;
+        if (inFlight.size() >= maxInFlight) {
+            written = write(inFlight.removeFirst(), output);
+        }
+        inFlight.addLast(executor.submit(task));
+        return written;
+    }
+
+    private long write(Future<byte[]> pending, OutputStream output) throws IOException {
+        byte[] block;
+        try {
+            block = pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a block", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Block conversion failed", e.getCause());
+        }
+
+        long start = System.nanoTime();
+        output.write(block);
+        counters.stage("write").add(block.length, start);
+        return uncompressedSize(block);
+    }
+
+    /**
+     * Check (without consuming) whether the stream starts with a BGZF block header.
+     */
+    static boolean isBgzf(BufferedInputStream in) throws IOException {
+        byte[] header = new byte[HEADER_SIZE];
+        in.mark(HEADER_SIZE);
+        int read = 0;
+        int n;
+        while (read < HEADER_SIZE && (n = in.read(header, read, HEADER_SIZE - read)) > 0) {
+            read += n;
+        }
+        in.reset();
+
+        return read == HEADER_SIZE
+            && (header[0] & 0xff) == 0x1f && (header[1] & 0xff) == 0x8b && header[2] == 8 && (header[3] & 4) != 0
+            && header[12] == 'B' && header[13] == 'C';
+    }
+
+    /**
+     * Read one complete BGZF block (header, compressed data and footer).
+     *
+     * @param offset offset of the block in the input, for error messages
+     * @return the block, or null at end of input
+     * @throws IOException on read error, or when the block is not a (valid) BGZF block
+     */
+    byte[] readBlock(DataInputStream in, long offset) throws IOException {
+        long start = System.nanoTime();
+        byte[] header = new byte[12];
+        int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+        header[0] = (byte) first;
+        in.readFully(header, 1, header.length - 1);
+        if ((header[0] & 0xff) != 0x1f || (header[1] & 0xff) != 0x8b || (header[3] & 4) == 0) {
+            throw new IOException("Not a BGZF block at offset " + offset);
+        }
+
+        int extraLength = littleEndianShort(header, 10);
+        byte[] extra = new byte[extraLength];
+        in.readFully(extra);
+        int blockSize = -1;
+        for (int i = 0; i + 4 <= extraLength; i += 4 + littleEndianShort(extra, i + 2)) {
+            if (extra[i] == 'B' && extra[i + 1] == 'C' && littleEndianShort(extra, i + 2) == 2
+                && i + 6 <= extraLength) {
+                blockSize = littleEndianShort(extra, i + 4) + 1;
+            }
+        }
+        if (blockSize < 0) {
+            throw new IOException("BGZF block without block size at offset " + offset);
+        }
+        if (blockSize < header.length + extraLength + FOOTER_SIZE) {
+            throw new IOException("BGZF block at offset " + offset + " has block size " + blockSize
+                + ", smaller than its header and footer");
+        }
+
+        byte[] block = Arrays.copyOf(header, blockSize);
+        System.arraycopy(extra, 0, block, header.length, extraLength);
+        in.readFully(block, header.length + extraLength, blockSize - header.length - extraLength);
+        int size = uncompressedSize(block);
+        if (size < 0 || size > MAX_BLOCK_SIZE) {
+            throw new IOException("BGZF block at offset " + offset + " has uncompressed size " + size
+                + ", over the limit of " + MAX_BLOCK_SIZE);
+        }
+        counters.stage("read").add(blockSize, start);
+        return block;
+    }
+
+    /**
+     * Read the next (at most) block sized part from a plain gzip stream.
+     *
+     * @return the data, or null at end of input
+     */
+    byte[] readPlain(GZIPInputStream in) throws IOException {
+        long start = System.nanoTime();
+        byte[] data = new byte[BLOCK_DATA_SIZE];
+        int length = 0;
+        int n;
+        while (length < data.length && (n = in.read(data, length, data.length - length)) > 0) {
+            length += n;
+        }
+        if (length == 0) {
+            return null;
+        }
+        // single threaded decompression, so this is counted as inflate
+        counters.stage("inflate").add(length, start);
+        return length == data.length ? data : Arrays.copyOf(data, length);
+    }
+
+    byte[] inflate(byte[] block) throws IOException {
+        long start = System.nanoTime();
+        int extraLength = littleEndianShort(block, 10);
+        int dataOffset = 12 + extraLength;
+        int crc = littleEndianInt(block, block.length - 8);
+        int size = littleEndianInt(block, block.length - 4);
+        if (size < 0 || size > MAX_BLOCK_SIZE) {
+            throw new IOException("BGZF block uncompressed size " + size + " over the limit of " + MAX_BLOCK_SIZE);
+        }
+
+        byte[] data = new byte[size];
+        Inflater inflater = inflaters.get();
+        if (inflater == null) {
+            inflater = new Inflater(true);
+            inflaters.set(inflater);
+        }
+        inflater.reset();
+        inflater.setInput(block, dataOffset, block.length - dataOffset - FOOTER_SIZE);
+        try {
+            int length = 0;
+            while (length < size && !inflater.finished()) {
+                int n = inflater.inflate(data, length, size - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+            if (length != size) {
+                throw new IOException("BGZF block size mismatch: " + length + " instead of " + size);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt BGZF block", e);
+        }
+
+        CRC32 check = new CRC32();
+        check.update(data, 0, size);
+        if ((int) check.getValue() != crc) {
+            throw new IOException("BGZF block CRC mismatch");
+        }
+        counters.stage("inflate").add(size, start);
+        return data;
+    }
+
+    byte[] complement(byte[] data) {
+        long start = System.nanoTime();
+        ComplementKernel.complement(data, 0, data.length);
+        counters.stage("complement").add(data.length, start);
+        return data;
+    }
+
+    byte[] deflate(byte[] data) throws IOException {
+        long start = System.nanoTime();
+        Deflater deflater = deflaters.get();
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            deflaters.set(deflater);
+        }
+        deflater.reset();
+        deflater.setInput(data, 0, data.length);
+        deflater.finish();
+
+        byte[] result = new byte[MAX_BLOCK_SIZE];
+        int compressedLength = deflater.deflate(result, HEADER_SIZE, MAX_BLOCK_SIZE - HEADER_SIZE - FOOTER_SIZE);
+        if (!deflater.finished()) {
+            // cannot happen for BLOCK_DATA_SIZE input, deflate never grows data that much
+            throw new IOException("Compressed block does not fit in a BGZF block");
+        }
+        int blockSize = HEADER_SIZE + compressedLength + FOOTER_SIZE;
+
+        System.arraycopy(EOF_BLOCK, 0, result, 0, HEADER_SIZE);
+        putLittleEndianShort(result, 16, blockSize - 1);
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        putLittleEndianInt(result, blockSize - 8, (int) crc.getValue());
+        putLittleEndianInt(result, blockSize - 4, data.length);
+
+        counters.stage("deflate").add(data.length, start);
+        return Arrays.copyOf(result, blockSize);
+    }
+
+    static int uncompressedSize(byte[] block) {
+        return littleEndianInt(block, block.length - 4);
+    }
+
+    static int littleEndianShort(byte[] data, int offset) {
+        return (data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8;
+    }
+
+    static int littleEndianInt(byte[] data, int offset) {
+        return littleEndianShort(data, offset) | littleEndianShort(data, offset + 2) << 16;
+    }
+
+    static void putLittleEndianShort(byte[] data, int offset, int value) {
+        data[offset] = (byte) value;
+        data[offset + 1] = (byte) (value >>> 8);
+    }
+
+    static void putLittleEndianInt(byte[] data, int offset, int value) {
+        putLittleEndianShort(data, offset, value);
+        putLittleEndianShort(data, offset + 2, value >>> 16);
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args input file (gzip or BGZF), output file (BGZF), optional threads, optional blocks in flight
+     * @throws IOException on error
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 4) {
+            System.err.println("Usage: BgzfComplementPipeline <input.gz> <output.gz> [threads] [blocks-in-flight]");
+            System.exit(2);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int inFlight = args.length > 3 ? Integer.parseInt(args[3]) : threads * 4;
+
+        BgzfComplementPipeline pipeline = new BgzfComplementPipeline(threads, inFlight);
+        long start = System.nanoTime();
+        long total;
+        try (InputStream in = new FileInputStream(args[0]);
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(args[1]), MAX_BLOCK_SIZE)) {
+            total = pipeline.run(in, out);
+        }
+        System.out.print(pipeline.getCounters().report(total, System.nanoTime() - start));
+    }
+}
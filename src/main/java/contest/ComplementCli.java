@@ -0,0 +1,204 @@
+package contest;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The "complement" command line tool: complement a file (or stdin) into a file (or stdout).
+ *
+ * Usage: complement [-i input] [-o output] [-e auto|sequential|parallel] [-t threads] [-s none|counts|hash]
+ *                   [-m complement|transcribe|rna-complement|template|hard-mask]
+ *
+ * Input and output default to stdin and stdout ("-"). The input is handled in chunks, so output starts
+ * as soon as the first chunk is read, and memory use does not depend on the input size.
+ *
+ * With -s counts, the base counts, GC content and first invalid character are written to stderr, gathered
+ * while converting (see {@link SequenceStats}); -s hash adds the hash of the output.
+ *
+ * With -m another translation than the complement is done (see {@link TranslationEngine#named}).
+ *
+ * This is started thousands of times on small files, so startup matters: it only uses the (java) kernel,
+ * never the contest (which would load the Kotlin contenders), and the build makes a class data sharing
+ * archive for it (see the cdsArchive task and complement.sh).
+ */
+public class ComplementCli {
+
+    static final int BUFFER_SIZE = 4 * 1024 * 1024;
+
+    /** Chunks smaller than this are converted sequentially by the "auto" engine. */
+    static final int PARALLEL_THRESHOLD = 1024 * 1024;
+
+    private final String engine;
+    private final int threads;
+    private final String statsMode;
+    private final TranslationEngine translation;
+    private ForkJoinPool pool;
+    private SequenceStats stats;
+
+    ComplementCli(String engine, int threads) {
+        this(engine, threads, "none", "complement");
+    }
+
+    ComplementCli(String engine, int threads, String statsMode, String mapping) {
+        if (!"auto".equals(engine) && !"sequential".equals(engine) && !"parallel".equals(engine)) {
+            throw new IllegalArgumentException("Unknown engine: " + engine + " (use auto, sequential or parallel)");
+        }
+        if (!"none".equals(statsMode) && !"counts".equals(statsMode) && !"hash".equals(statsMode)) {
+            throw new IllegalArgumentException("Unknown statistics: " + statsMode + " (use none, counts or hash)");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be positive");
+        }
+        this.engine = engine;
+        this.threads = threads;
+        this.statsMode = statsMode;
+        // the complement keeps its own kernel (that is the one with statistics)
+        if ("complement".equals(mapping)) {
+            translation = null;
+        } else if (!"none".equals(statsMode)) {
+            throw new IllegalArgumentException("Statistics are only gathered for the complement");
+        } else {
+            translation = TranslationEngine.named(mapping);
+        }
+    }
+
+    /**
+     * Complement everything from the input to the output.
+     *
+     * @param in input
+     * @param out output, flushed (not closed) at the end
+     * @return number of bytes converted
+     * @throws IOException on read/write error
+     */
+    long run(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        int length;
+        while ((length = in.read(buffer)) >= 0) {
+            convert(buffer, length);
+            out.write(buffer, 0, length);
+            total += length;
+        }
+        out.flush();
+        return total;
+    }
+
+    /**
+     * @return statistics of everything converted so far, or null when not asked for
+     */
+    SequenceStats getStats() {
+        return stats;
+    }
+
+    private void convert(byte[] buffer, int length) {
+        boolean parallel = threads > 1
+            && ("parallel".equals(engine) || "auto".equals(engine) && length >= PARALLEL_THRESHOLD);
+        if (parallel && pool == null) {
+            // only created when needed, it costs startup time
+            pool = new ForkJoinPool(threads);
+        }
+        if (translation != null) {
+            if (parallel) {
+                translation.translateParallel(buffer, 0, length, pool);
+            } else {
+                translation.translate(buffer, 0, length);
+            }
+            return;
+        }
+        if ("none".equals(statsMode)) {
+            if (parallel) {
+                ComplementKernel.complementParallel(buffer, 0, length, pool);
+            } else {
+                ComplementKernel.complement(buffer, 0, length);
+            }
+            return;
+        }
+
+        boolean hash = "hash".equals(statsMode);
+        SequenceStats chunk = parallel
+            ? ComplementKernel.complementParallelWithStats(buffer, 0, length, hash, pool)
+            : ComplementKernel.complementWithStats(buffer, 0, length, hash);
+        stats = stats == null ? chunk : stats.merge(chunk);
+    }
+
+    private static void usage(String error) {
+        System.err.println("complement: " + error);
+        System.err.println("Usage: complement [-i input] [-o output] [-e auto|sequential|parallel] [-t threads]"
+            + " [-s none|counts|hash] [-m complement|transcribe|rna-complement|template|hard-mask]");
+        System.exit(2);
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args options, see the class comment
+     */
+    public static void main(String[] args) {
+        String input = "-";
+        String output = "-";
+        String engine = "auto";
+        String statsMode = "none";
+        String mapping = "complement";
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i += 2) {
+            String option = args[i];
+            if (i + 1 == args.length) {
+                usage("missing value for " + option);
+            }
+            String value = args[i + 1];
+            switch (option) {
+                case "-i":
+                case "--input":
+                    input = value;
+                    break;
+                case "-o":
+                case "--output":
+                    output = value;
+                    break;
+                case "-e":
+                case "--engine":
+                    engine = value;
+                    break;
+                case "-t":
+                case "--threads":
+                    try {
+                        threads = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        usage("threads must be a number");
+                    }
+                    break;
+                case "-m":
+                case "--mapping":
+                    mapping = value;
+                    break;
+                case "-s":
+                case "--stats":
+                    statsMode = value;
+                    break;
+                default:
+                    usage("unknown option " + option);
+            }
+        }
+
+        try (InputStream in = "-".equals(input) ? new FileInputStream(FileDescriptor.in) : new FileInputStream(input);
+             OutputStream out = "-".equals(output) ? new FileOutputStream(FileDescriptor.out) : new FileOutputStream(output)) {
+            ComplementCli cli = new ComplementCli(engine, threads, statsMode, mapping);
+            cli.run(in, out);
+            if (cli.stats != null) {
+                System.err.println(cli.stats);
+            }
+            if (cli.pool != null) {
+                cli.pool.shutdown();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("complement: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package contest;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one call of a complement engine.
+ *
+ * Only used through {@link EngineMetrics}, and only once the runtime has started the flight recorder, so this
+ * class (and with it JFR) is never loaded by processes that do not record.
+ */
+@Name("contest.Complement")
+@Label("Complement")
+@Category("Contest")
+@Description("One call of a complement engine")
+@StackTrace(false)
+public class ComplementEvent extends Event {
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Length")
+    @DataAmount
+    long length;
+
+    @Label("Chunks")
+    int chunks;
+
+    @Label("Threads")
+    int threads;
+
+    @Label("Bytes Allocated")
+    @Description("Allocated by the calling thread during the call")
+    @DataAmount
+    long bytesAllocated;
+
+    /**
+     * @return a started event, or null when the event is not enabled in any recording
+     */
+    static ComplementEvent start() {
+        ComplementEvent event = new ComplementEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.bytesAllocated = ThreadAllocation.allocatedBytes();
+        event.begin();
+        return event;
+    }
+
+    void finish(String engine, long length, int chunks, int threads) {
+        end();
+        if (shouldCommit()) {
+            this.engine = engine;
+            this.length = length;
+            this.chunks = chunks;
+            this.threads = threads;
+            bytesAllocated = ThreadAllocation.allocatedBytes() - bytesAllocated;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package contest;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The complement kernel, shared by the tools that work on files instead of Strings.
+ *
+ * Same rules as the contest: A by T, T by A, C by G, G by C. Other characters (newlines,
+ * headers, N's) are left untouched, just like the if/else contenders (#10, #16) do.
+ *
+ * The parallel variant is the #16 approach (ForkJoin, direct write), on bytes instead of chars,
+ * so it works directly on file buffers.
+ *
+ * complement and complementParallel convert with the fastest kernel of the runtime (see Kernels: a table
+ * loop, or a vector kernel on java 17+); complementRange is the switch loop of the contenders.
+ *
+ * The "WithStats" variants do the same, and gather {@link SequenceStats} part by part while the part is in
+ * the cache, so a caller that needs base counts or validation does not read the chain again.
+ *
+ * Every call of the public methods is counted in the {@link EngineMetrics} of the "sequential" or
+ * "parallel" engine.
+ */
+public final class ComplementKernel {
+
+    /**
+     * Below this many characters a part is converted directly, instead of being split again.
+     */
+    static final int WORK_SIZE_THRESHOLD = 100000;
+
+    static final EngineMetrics SEQUENTIAL = EngineMetrics.forEngine("sequential");
+    static final EngineMetrics PARALLEL = EngineMetrics.forEngine("parallel");
+
+    static final TranslationEngine.Kernel BEST = Kernels.create(TranslationEngine.table("ACGT", "TGCA"));
+
+    // classes of the characters, for the statistics
+    static final int CLASS_A = 0;
+    static final int CLASS_C = 1;
+    static final int CLASS_G = 2;
+    static final int CLASS_T = 3;
+    static final int CLASS_N = 4;
+    static final int CLASS_INVALID = 5;
+    static final int CLASSES = 6;
+
+    /** The class of the input character, by the converted (output) character. */
+    private static final byte[] OUTPUT_CLASS = new byte[256];
+
+    static {
+        Arrays.fill(OUTPUT_CLASS, (byte) CLASS_INVALID);
+        OUTPUT_CLASS['T'] = CLASS_A;
+        OUTPUT_CLASS['G'] = CLASS_C;
+        OUTPUT_CLASS['C'] = CLASS_G;
+        OUTPUT_CLASS['A'] = CLASS_T;
+        OUTPUT_CLASS['N'] = CLASS_N;
+    }
+
+    private ComplementKernel() {
+    }
+
+    /**
+     * Complement a range of a byte array in place.
+     *
+     * @param data the characters (ASCII)
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     */
+    public static void complement(byte[] data, int from, int to) {
+        long start = SEQUENTIAL.begin();
+        Object event = SEQUENTIAL.beginEvent();
+        BEST.translate(data, from, to);
+        SEQUENTIAL.end(start, event, to - from, 1, 1);
+    }
+
+    /**
+     * Complement a range of a byte array in place, without metrics (for use inside engines).
+     */
+    static void complementRange(byte[] data, int from, int to) {
+        for (int i = from; i < to; i++) {
+            switch (data[i]) {
+                case 'A':
+                    data[i] = 'T';
+                    break;
+                case 'T':
+                    data[i] = 'A';
+                    break;
+                case 'C':
+                    data[i] = 'G';
+                    break;
+                case 'G':
+                    data[i] = 'C';
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Complement a range of a byte array in place, and gather its statistics.
+     *
+     * The range is done in parts of WORK_SIZE_THRESHOLD, whose statistics are merged (as the parallel version
+     * does), so the counting and hash loops of every part read it from the cache, not from memory.
+     *
+     * @param data the characters (ASCII)
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param hash also compute the hash of the result
+     * @return statistics of the range (offsets relative to from)
+     */
+    public static SequenceStats complementWithStats(byte[] data, int from, int to, boolean hash) {
+        long start = SEQUENTIAL.begin();
+        Object event = SEQUENTIAL.beginEvent();
+        int partEnd = from + Math.min(to - from, WORK_SIZE_THRESHOLD);
+        SequenceStats stats = complementRangeWithStats(data, from, partEnd, hash);
+        int parts = 1;
+        while (partEnd < to) {
+            int partStart = partEnd;
+            partEnd = partStart + Math.min(to - partStart, WORK_SIZE_THRESHOLD);
+            stats.merge(complementRangeWithStats(data, partStart, partEnd, hash));
+            parts++;
+        }
+        SEQUENTIAL.end(start, event, to - from, parts, 1);
+        return stats;
+    }
+
+    /**
+     * Complement a part (at most WORK_SIZE_THRESHOLD long, so it stays in the cache) and gather its statistics.
+     *
+     * No switch per character: on random chains that mispredicts most characters, and made the statistics
+     * cost 30 times the conversion. The part is converted with the BEST kernel, then its output is counted
+     * with the class table (no branches: the class is the index of the counter). Four sets of counters, so
+     * consecutive characters of the same class do not wait for each other's increment. The output counts
+     * are those of the input: every T was an A, and so on; other characters are not changed.
+     *
+     * N runs and the first invalid character need a branch per character, so that loop only runs for parts
+     * that have N's or invalid characters.
+     *
+     * The hash (31 * h + c, like String.hashCode) is one long dependency chain; it takes four characters a
+     * step (h * 31^4 + a * 31^3 + b * 31^2 + c * 31 + d), which makes the chain four times shorter.
+     */
+    static SequenceStats complementRangeWithStats(byte[] data, int from, int to, boolean hash) {
+        BEST.translate(data, from, to);
+
+        int[] counts = new int[4 * CLASSES];
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            counts[OUTPUT_CLASS[data[i] & 0xff]]++;
+            counts[CLASSES + OUTPUT_CLASS[data[i + 1] & 0xff]]++;
+            counts[2 * CLASSES + OUTPUT_CLASS[data[i + 2] & 0xff]]++;
+            counts[3 * CLASSES + OUTPUT_CLASS[data[i + 3] & 0xff]]++;
+        }
+        for (; i < to; i++) {
+            counts[OUTPUT_CLASS[data[i] & 0xff]]++;
+        }
+        for (int set = 1; set < 4; set++) {
+            for (int c = 0; c < CLASSES; c++) {
+                counts[c] += counts[set * CLASSES + c];
+            }
+        }
+
+        SequenceStats stats = new SequenceStats();
+        stats.length = to - from;
+        stats.a = counts[CLASS_A];
+        stats.c = counts[CLASS_C];
+        stats.g = counts[CLASS_G];
+        stats.t = counts[CLASS_T];
+        stats.n = counts[CLASS_N];
+        stats.invalid = counts[CLASS_INVALID];
+        if (stats.n > 0 || stats.invalid > 0) {
+            runsAndInvalid(data, from, to, stats);
+        }
+        if (hash) {
+            stats.hashed = true;
+            stats.hash = hash(data, from, to);
+        }
+        return stats;
+    }
+
+    /**
+     * Fill in the N runs and the first invalid character of a (converted) part.
+     */
+    private static void runsAndInvalid(byte[] data, int from, int to, SequenceStats stats) {
+        int firstInvalid = -1;
+        int lastNonN = from - 1;
+        int leadingN = 0;
+        int longestNRun = 0;
+        for (int i = from; i < to; i++) {
+            int kind = OUTPUT_CLASS[data[i] & 0xff];
+            if (kind == CLASS_N) {
+                int run = i - lastNonN;
+                if (run > longestNRun) {
+                    longestNRun = run;
+                }
+                if (lastNonN < from) {
+                    leadingN = run;
+                }
+            } else {
+                if (kind == CLASS_INVALID && firstInvalid < 0) {
+                    firstInvalid = i - from;
+                }
+                lastNonN = i;
+            }
+        }
+        stats.firstInvalid = firstInvalid;
+        stats.leadingN = leadingN;
+        stats.trailingN = to - 1 - lastNonN;
+        stats.longestNRun = longestNRun;
+    }
+
+    /**
+     * @return String.hashCode() of the (Latin-1) characters of a range
+     */
+    static int hash(byte[] data, int from, int to) {
+        int h = 0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            h = 923521 * h + 29791 * (data[i] & 0xff) + 961 * (data[i + 1] & 0xff) + 31 * (data[i + 2] & 0xff)
+                + (data[i + 3] & 0xff);
+        }
+        for (; i < to; i++) {
+            h = 31 * h + (data[i] & 0xff);
+        }
+        return h;
+    }
+
+    /**
+     * Complement a range of a char array in place.
+     *
+     * @param data the characters
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     */
+    public static void complement(char[] data, int from, int to) {
+        long start = SEQUENTIAL.begin();
+        Object event = SEQUENTIAL.beginEvent();
+        BEST.translate(data, from, to);
+        SEQUENTIAL.end(start, event, to - from, 1, 1);
+    }
+
+    /**
+     * Complement a range of a char array in place, without metrics (for use inside engines).
+     */
+    static void complementRange(char[] data, int from, int to) {
+        for (int i = from; i < to; i++) {
+            switch (data[i]) {
+                case 'A':
+                    data[i] = 'T';
+                    break;
+                case 'T':
+                    data[i] = 'A';
+                    break;
+                case 'C':
+                    data[i] = 'G';
+                    break;
+                case 'G':
+                    data[i] = 'C';
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Complement a range of a byte array in place, using the common ForkJoinPool.
+     *
+     * @param data the characters (ASCII)
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     */
+    public static void complementParallel(byte[] data, int from, int to) {
+        complementParallel(data, from, to, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Complement a range of a byte array in place, using the given ForkJoinPool.
+     *
+     * @param data the characters (ASCII)
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param pool the pool to run in
+     */
+    public static void complementParallel(byte[] data, int from, int to, ForkJoinPool pool) {
+        long start = PARALLEL.begin();
+        Object event = PARALLEL.beginEvent();
+        if (to - from < WORK_SIZE_THRESHOLD) {
+            BEST.translate(data, from, to);
+        } else {
+            pool.invoke(new ChainOpposite(data, from, to));
+        }
+        PARALLEL.end(start, event, to - from, chunkCount(to - from), pool.getParallelism());
+    }
+
+    /**
+     * Complement a range of a byte array in place using the given ForkJoinPool, and gather its statistics.
+     *
+     * @param data the characters (ASCII)
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param hash also compute the hash of the result
+     * @param pool the pool to run in
+     * @return statistics of the range (offsets relative to from)
+     */
+    public static SequenceStats complementParallelWithStats(byte[] data, int from, int to, boolean hash,
+                                                            ForkJoinPool pool) {
+        long start = PARALLEL.begin();
+        Object event = PARALLEL.beginEvent();
+        SequenceStats stats = to - from < WORK_SIZE_THRESHOLD
+            ? complementRangeWithStats(data, from, to, hash)
+            : pool.invoke(new ChainOppositeStats(data, from, to, hash));
+        PARALLEL.end(start, event, to - from, chunkCount(to - from), pool.getParallelism());
+        return stats;
+    }
+
+    /**
+     * @return the number of parts ChainOpposite splits this length in
+     */
+    static int chunkCount(int length) {
+        int chunks = 1;
+        for (int part = length; part >= WORK_SIZE_THRESHOLD; part -= part / 2) {
+            chunks *= 2;
+        }
+        return chunks;
+    }
+
+    /**
+     * Split the range in halves until small enough, then convert directly (with the BEST kernel).
+     */
+    static class ChainOpposite extends RecursiveAction {
+        private final byte[] data;
+        private final int from;
+        private final int to;
+
+        ChainOpposite(byte[] data, int from, int to) {
+            this.data = data;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < WORK_SIZE_THRESHOLD) {
+                BEST.translate(data, from, to);
+                return;
+            }
+
+            int split = from + (to - from) / 2;
+            invokeAll(
+                new ChainOpposite(data, from, split),
+                new ChainOpposite(data, split, to));
+        }
+    }
+
+    /**
+     * ChainOpposite that also gathers statistics: every part returns its own, and they are merged (in order)
+     * on the way back up.
+     */
+    static class ChainOppositeStats extends RecursiveTask<SequenceStats> {
+        private final byte[] data;
+        private final int from;
+        private final int to;
+        private final boolean hash;
+
+        ChainOppositeStats(byte[] data, int from, int to, boolean hash) {
+            this.data = data;
+            this.from = from;
+            this.to = to;
+            this.hash = hash;
+        }
+
+        @Override
+        protected SequenceStats compute() {
+            if (to - from < WORK_SIZE_THRESHOLD) {
+                return complementRangeWithStats(data, from, to, hash);
+            }
+
+            int split = from + (to - from) / 2;
+            ChainOppositeStats right = new ChainOppositeStats(data, split, to, hash);
+            right.fork();
+            SequenceStats left = new ChainOppositeStats(data, from, split, hash).compute();
+            return left.merge(right.join());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package contest;
+
+import java.util.stream.IntStream;
+
+/**
+ * Parallel char replace (like #15), but with page aligned, L2 sized parts instead of 200 arbitrary ones,
+ * and the conversion in a copy of the input (so no shared output array between calls).
+ */
+public class ContenderAligned implements Contest.Contender {
+
+    @Override
+    public String getDescription() {
+        return "(#25) Aligned-1, parallel char replace, page aligned L2 sized parts";
+    }
+
+    @Override
+    public String convert(String input) {
+        char[] chars = input.toCharArray();
+        int[] boundaries = AlignedPartitioner.partition(chars.length, Character.BYTES);
+
+        IntStream.range(0, boundaries.length - 1).parallel()
+            .forEach(part -> ComplementKernel.complementRange(chars, boundaries[part], boundaries[part + 1]));
+
+        return new String(chars);
+    }
+}
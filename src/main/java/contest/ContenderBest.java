@@ -0,0 +1,22 @@
+package contest;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * #16 (ForkJoin, direct write), with the fastest kernel and String handling of the java version it runs
+ * on, picked by the multi-release jar (see Kernels). Run from the jar to get the newer versions.
+ */
+public class ContenderBest implements Contest.Contender {
+
+    private final TranslationEngine engine = TranslationEngine.named("complement");
+
+    @Override
+    public String getDescription() {
+        return "(#28) Best-1, parallel, fastest kernel of this java (" + Kernels.description() + ")";
+    }
+
+    @Override
+    public String convert(String input) {
+        return engine.translateParallel(input, ForkJoinPool.commonPool());
+    }
+}
@@ -0,0 +1,33 @@
+package contest;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * #16 (ForkJoin, direct write), with a TranslationEngine kernel made from the mapping instead of the
+ * hand-written switch: the generated switch loop (#26), or the table loop (#27).
+ */
+public class ContenderTranslation implements Contest.Contender {
+
+    private final String description;
+    private final TranslationEngine engine;
+
+    ContenderTranslation(boolean generate) {
+        description = generate
+            ? "(#26) Generated-1, parallel switch replace, kernel generated at runtime"
+            : "(#27) Table-1, parallel table lookup replace";
+        engine = TranslationEngine.forMapping(generate ? "complement-generated" : "complement-table",
+            "ACGT", "TGCA", generate);
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String convert(String input) {
+        char[] chars = input.toCharArray();
+        engine.translateParallel(chars, 0, chars.length, ForkJoinPool.commonPool());
+        return new String(chars);
+    }
+}
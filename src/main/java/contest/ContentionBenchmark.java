@@ -0,0 +1,170 @@
+package contest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contention benchmark: M callers call the same contender at the same time (like the request threads of a
+ * service), each contender running with its own N threads (the common pool parallelism). Reports the
+ * aggregate throughput, the latency per call, and checks every result.
+ *
+ * Options:
+ *
+ * --callers 1,2,4,8        numbers of concurrent callers to try
+ * --calls 10               calls per caller
+ * --contenders 14,15,16    contenders to run (default: the parallel ones)
+ * --parallelism N          threads of the common ForkJoinPool (the engine threads), default: number of cores
+ */
+public class ContentionBenchmark {
+
+    static final String DEFAULT_CONTENDERS = "12,13,14,15,16,17,23,24,25,26,27,28";
+
+    /**
+     * Results of one contender with one number of callers.
+     */
+    static class Result {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicInteger wrong = new AtomicInteger();
+        final AtomicInteger restored = new AtomicInteger();
+        long wallNanos;
+        long chars;
+    }
+
+    /**
+     * Run M callers at once, every caller with its own copy of the inputs.
+     *
+     * @param restoreInputs check after every call whether the contender updated its input (#17 does), and if so
+     *                      restore it (not counted in the latency), so the next call converts the original again
+     */
+    static Result run(Contest.Contender contender, int callers, int calls, String[] inputs, int[] expectedHashes,
+                      boolean restoreInputs) throws InterruptedException {
+        Result result = new Result();
+        CountDownLatch ready = new CountDownLatch(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(callers);
+
+        for (int c = 0; c < callers; c++) {
+            Thread caller = new Thread(() -> {
+                try {
+                    // private copies: contenders that update their input (#17) can not spoil other callers
+                    String[] input = new String[inputs.length];
+                    for (int i = 0; i < inputs.length; i++) {
+                        input[i] = new String(inputs[i].toCharArray());
+                    }
+                    ready.countDown();
+                    start.await();
+
+                    for (int call = 0; call < calls; call++) {
+                        int i = call % input.length;
+                        long t = System.nanoTime();
+                        String converted;
+                        try {
+                            converted = contender.convert(input[i]);
+                        } catch (Exception e) {
+                            converted = null;
+                        }
+                        result.latency.record(System.nanoTime() - t);
+                        if (converted == null || converted.hashCode() != expectedHashes[i]) {
+                            result.wrong.incrementAndGet();
+                        }
+                        if (restoreInputs && !input[i].equals(inputs[i])) {
+                            input[i] = new String(inputs[i].toCharArray());
+                            result.restored.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "caller-" + c);
+            caller.start();
+        }
+
+        ready.await();
+        long t = System.nanoTime();
+        start.countDown();
+        done.await();
+        result.wallNanos = System.nanoTime() - t;
+        result.chars = (long) callers * calls * Contest.CHAIN_SIZE;
+        return result;
+    }
+
+    private static List<Integer> numbers(String value) {
+        List<Integer> result = new ArrayList<>();
+        for (String number : value.split(",")) {
+            result.add(Integer.parseInt(number.trim()));
+        }
+        return result;
+    }
+
+    /**
+     * Command line entry point, see the class comment for the options.
+     *
+     * @param args options
+     * @throws Exception on error
+     */
+    public static void main(String[] args) throws Exception {
+        List<Integer> callerCounts = numbers("1,2,4,8");
+        int calls = 10;
+        String contenders = DEFAULT_CONTENDERS;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--callers":
+                    callerCounts = numbers(args[i + 1]);
+                    break;
+                case "--calls":
+                    calls = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--contenders":
+                    contenders = args[i + 1];
+                    break;
+                case "--parallelism":
+                    // before anything uses the common pool
+                    System.setProperty("java.util.concurrent.ForkJoinPool.common.parallelism", args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        String[] inputs = {Contest.generateInput(Contest.CHAIN_SIZE), Contest.generateInput(Contest.CHAIN_SIZE)};
+        int[] expectedHashes = new int[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            char[] complement = inputs[i].toCharArray();
+            ComplementKernel.complementRange(complement, 0, complement.length);
+            expectedHashes[i] = new String(complement).hashCode();
+        }
+
+        List<Contest.Contender> selected = Contest.selectContenders(contenders);
+        int descriptionWidth = selected.stream().mapToInt(c -> c.getDescription().length()).max().orElse(20);
+        String headFormat = "%-" + descriptionWidth + "s | %7s | %6s | %9s | %8s | %8s | %8s | %s%n";
+        String lineFormat = "%-" + descriptionWidth + "s | %7d | %6d | %9.1f | %6dms | %6dms | %6dms | %s%n";
+        String header = String.format(headFormat, "Contender", "Callers", "Calls", "MB/s", "p50", "p99", "max", "Notes");
+        System.out.println("Engine threads (common pool parallelism): " + ForkJoinPool.getCommonPoolParallelism());
+        System.out.print(header);
+        for (int i = 1; i < header.length(); i++) {
+            System.out.print('-');
+        }
+        System.out.println();
+
+        for (Contest.Contender contender : selected) {
+            // warming-up, like the contest does; this also finds out whether the contender updates its input
+            boolean restoreInputs = run(contender, 1, 5, inputs, expectedHashes, true).restored.get() > 0;
+
+            for (int callers : callerCounts) {
+                Runtime.getRuntime().gc();
+                Result result = run(contender, callers, calls, inputs, expectedHashes, restoreInputs);
+                int wrong = result.wrong.get();
+                System.out.printf(lineFormat, contender.getDescription(), callers, callers * calls,
+                    StageCounters.mbPerSecond(result.chars, result.wallNanos),
+                    result.latency.getValueAtPercentile(50) / 1000000, result.latency.getValueAtPercentile(99) / 1000000,
+                    result.latency.getMax() / 1000000, (wrong == 0 ? "" : wrong + " wrong results! ")
+                        + (restoreInputs ? "Updates its input (restored after every call)" : ""));
+            }
+        }
+    }
+}
@@ -9,6 +9,8 @@ import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.stream.IntStream;
 
 /**
@@ -421,7 +423,8 @@ public class Contest {
                 char[] input = inputString.toCharArray();
                 char[] output = new char[input.length];
 
-                ForkJoinPool forkJoinPool = new ForkJoinPool();
+                // the shared pool: a new pool per call would multiply the threads with concurrent callers
+                ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
                 forkJoinPool.invoke(new ChainOpposite(input, 0, input.length, output));
 
                 return new String(output);
@@ -430,7 +433,6 @@ public class Contest {
         ////////////////////////////////////////////////////////
         new Contender() {
             int partCount = 200;
-            final char[] outputChars = new char[CHAIN_SIZE];
 
             @Override
             public String getDescription() {
@@ -439,12 +441,14 @@ public class Contest {
 
             @Override
             public String convert(String input) {
-                IntStream.range(0, partCount).parallel().forEach(block -> multiReplace(input, block));
+                // a new output buffer per call (like #14), so concurrent callers do not write in each other's output
+                char[] outputChars = new char[CHAIN_SIZE];
+                IntStream.range(0, partCount).parallel().forEach(block -> multiReplace(input, outputChars, block));
 
                 return new String(outputChars);
             }
 
-            void multiReplace(final String input, long block) {
+            void multiReplace(final String input, final char[] outputChars, long block) {
                 int start = new Long(block * CHAIN_SIZE / partCount).intValue();
                 int end = start + CHAIN_SIZE / partCount;
 
@@ -524,7 +528,8 @@ public class Contest {
             public String convert(String inputString) {
                 char[] dirtyInput = inputString.toCharArray();
 
-                ForkJoinPool forkJoinPool = new ForkJoinPool();
+                // the shared pool: a new pool per call would multiply the threads with concurrent callers
+                ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
                 forkJoinPool.invoke(new ChainOpposite(dirtyInput, 0, CHAIN_SIZE));
 
                 return new String(dirtyInput);
@@ -626,13 +631,47 @@ public class Contest {
         new ContenderDylan2(),
         new ContenderDylan3(),
         new ContenderDylan4(),
-        new ContenderDylan5()
+        new ContenderDylan5(),
+        new ContenderAligned(),
+        new ContenderTranslation(true),
+        new ContenderTranslation(false),
+        new ContenderBest()
 
         ////////////////////////////////////////////////////////
     );
 
+    /**
+     * @return the contenders, in contest order (also used by the JMH benchmarks)
+     */
+    static List<Contender> getContenders() {
+        return contenders;
+    }
+
+    /**
+     * Select contenders by number.
+     *
+     * @param numbers comma separated contender numbers (like "14,16,25"), or null (or empty) for all
+     * @return the selected contenders, in the given order
+     */
+    static List<Contender> selectContenders(String numbers) {
+        if (numbers == null || numbers.trim().isEmpty()) {
+            return contenders;
+        }
+        List<Contender> result = new ArrayList<>();
+        for (String number : numbers.split(",")) {
+            String prefix = "(#" + number.trim() + ")";
+            contenders.stream().filter(c -> c.getDescription().startsWith(prefix)).findFirst().ifPresent(result::add);
+        }
+        return result;
+    }
+
     /**
      * The contest interface.
+     *
+     * Implementations must be safe to call from several threads at once (a service calls them from many
+     * request threads): no shared mutable state between calls, and parallel ones run in a shared pool
+     * (like the common ForkJoinPool) instead of starting threads per call. The exception is #17, which
+     * updates the input String itself, so concurrent callers must not share an input.
      */
     interface Contender {
         /**
@@ -648,7 +687,7 @@ public class Contest {
      * @param size the number of characters to generate
      * @return chain string
      */
-    private static String generateInput(int size) {
+    static String generateInput(int size) {
         Random random = new Random();
         StringBuilder result = new StringBuilder(size);
         for (int i = 0; i < size; i++) {
@@ -663,11 +702,12 @@ public class Contest {
      * @param format the format
      * @param result result
      * @param timeMs time in milliseconds
+     * @param columns the column names
      */
-    private static void reportHeader(String format, String result, long timeMs) {
+    private static void reportHeader(String format, String result, long timeMs, Object... columns) {
         System.out.println("Generated input (length: " + result.length() + ") in " + timeMs + " ms.\n");
 
-        String header = String.format(format, "Contender", "Length", "Hash", "Time", "Notes");
+        String header = String.format(format, columns);
         System.out.println(header);
         for (int i = 0; i < header.length(); i++) {
             System.out.print('-');
@@ -683,8 +723,10 @@ public class Contest {
      * @param result converted input, passed in to verify correctness
      * @param timeMs convert run duration
      * @param checkHash result must match this hash
+     * @param latency latencies of the latency mode, or null
      */
-    private static void report(String format, String description, String result, long timeMs, Integer checkHash, boolean immutableBreach) {
+    private static void report(String format, String description, String result, long timeMs, Integer checkHash, boolean immutableBreach,
+                               LatencyRun latency) {
         int length = result != null ? result.length() : -1;
         int hash = result != null ? result.hashCode() : -1;
         String note = "";
@@ -698,12 +740,94 @@ public class Contest {
         if (immutableBreach) {
             note += "Code did update immutable input string!";
         }
-        System.out.println(String.format(format, description, length, hash, timeMs, note));
+        if (latency == null) {
+            System.out.println(String.format(format, description, length, hash, timeMs, note));
+            return;
+        }
+
+        LatencyHistogram histogram = latency.histogram;
+        if (latency.failures > 0) {
+            note += latency.failures + " of " + latency.runs + " latency runs failed. ";
+        }
+        System.out.println(String.format(format, description, length, hash, timeMs,
+            histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+            histogram.getValueAtPercentile(99.9) / 1e6, histogram.getMax() / 1e6, note));
+    }
+
+    /**
+     * Result of the latency mode for one contender.
+     */
+    static class LatencyRun {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        int runs;
+        int failures;
+    }
+
+    /**
+     * Latency mode: run a contender many times, at a fixed rate, and record every latency.
+     *
+     * A run is scheduled at a fixed interval from the start. Its latency is measured from that scheduled time,
+     * not from when it actually started. So when a run (or a GC pause) takes longer than the interval, the
+     * runs that had to wait for it get that waiting time counted as well, as they would in a service with
+     * that request rate (this corrects the "coordinated omission" of measuring only the call itself).
+     *
+     * A run fails when it throws, or when its result has another hash than the complement of its input.
+     * Contenders that update the "immutable" input (#17) work on private copies, which are restored after
+     * such a run (outside the measured time), so every run converts the original input.
+     *
+     * @param contender the contender
+     * @param inputs inputs to use, in turn
+     * @param runs number of runs
+     * @param ratePerSecond runs per second
+     * @return the latencies
+     */
+    static LatencyRun latencyRun(Contender contender, String[] inputs, int runs, double ratePerSecond) {
+        String[] input = new String[inputs.length];
+        int[] expectedHash = new int[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            input[i] = new String(inputs[i].toCharArray());
+            char[] complement = inputs[i].toCharArray();
+            ComplementKernel.complementRange(complement, 0, complement.length);
+            expectedHash[i] = new String(complement).hashCode();
+        }
+
+        LatencyRun latency = new LatencyRun();
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long start = System.nanoTime();
+        for (int run = 0; run < runs; run++) {
+            long scheduled = start + run * interval;
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            int i = run % input.length;
+            String result;
+            try {
+                result = contender.convert(input[i]);
+            } catch (Exception e) {
+                result = null;
+            }
+            latency.histogram.record(System.nanoTime() - scheduled);
+            latency.runs++;
+            if (result == null || result.hashCode() != expectedHash[i]) {
+                latency.failures++;
+            }
+            if (!input[i].equals(inputs[i])) {
+                input[i] = new String(inputs[i].toCharArray());
+            }
+        }
+        return latency;
     }
 
     /**
      * Test runner. Generate chain, and execute all contenders. Measure elapsed system time (in ms), and
      * do a garbage collect before the test, just to nudge the jvm not to do that halfway a next test.
+     * Set system property "contest.contenders" (like -Dcontest.contenders=14,16) to run only some contenders.
+     *
+     * Latency mode (-Dcontest.latency=true): after the 5 runs, every contender runs many more times
+     * (-Dcontest.latency.runs, default 1000) at a fixed rate (-Dcontest.latency.rate per second, default 10),
+     * without the gc/sleep in between, and the p50/p99/p99.9/max latencies are shown next to the time.
      * @param args - none
      * @throws InterruptedException on error
      */
@@ -717,13 +841,25 @@ public class Contest {
             procTime = (System.currentTimeMillis() - t);
         }
 
-        int descriptionWidth = contenders.stream().mapToInt(c -> c.getDescription().length()).max().orElse(20);
-        String headFormat = "%-" + descriptionWidth + "s | %9s | %12s | %4sms | %s";
-        String lineFormat = "%-" + descriptionWidth + "s | %9d | %12d | %4dms | %s";
-        reportHeader(headFormat, input[4], procTime);
+        List<Contender> selected = selectContenders(System.getProperty("contest.contenders"));
+        int descriptionWidth = selected.stream().mapToInt(c -> c.getDescription().length()).max().orElse(20);
+        boolean latencyMode = Boolean.getBoolean("contest.latency");
+        int latencyRuns = Integer.getInteger("contest.latency.runs", 1000);
+        double latencyRate = Double.parseDouble(System.getProperty("contest.latency.rate", "10"));
+        if (latencyMode) {
+            String headFormat = "%-" + descriptionWidth + "s | %9s | %12s | %4sms | %7sms | %7sms | %7sms | %7sms | %s";
+            System.out.println("Latency mode: " + latencyRuns + " runs per contender, at " + latencyRate + " per second.");
+            reportHeader(headFormat, input[4], procTime, "Contender", "Length", "Hash", "Time", "p50", "p99", "p99.9", "max", "Notes");
+        } else {
+            String headFormat = "%-" + descriptionWidth + "s | %9s | %12s | %4sms | %s";
+            reportHeader(headFormat, input[4], procTime, "Contender", "Length", "Hash", "Time", "Notes");
+        }
+        String lineFormat = latencyMode
+            ? "%-" + descriptionWidth + "s | %9d | %12d | %4dms | %7.1fms | %7.1fms | %7.1fms | %7.1fms | %s"
+            : "%-" + descriptionWidth + "s | %9d | %12d | %4dms | %s";
 
         Integer checkHash = null;
-        for (Contender contender : contenders) {
+        for (Contender contender : selected) {
 
             // We run the contender 5 times, to get a "warming-up" (jit compiler optimization).
             String result = null;
@@ -751,7 +887,8 @@ public class Contest {
                 }
             }
 
-            report(lineFormat, contender.getDescription(), result, procTime, checkHash, immutableBreach);
+            LatencyRun latency = latencyMode ? latencyRun(contender, input, latencyRuns, latencyRate) : null;
+            report(lineFormat, contender.getDescription(), result, procTime, checkHash, immutableBreach, latency);
             if (checkHash == null && result != null) {
                 // assume the first test is OK, all tests should show same hashcode...
                 checkHash = result.hashCode();
@@ -0,0 +1,168 @@
+package contest;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Live metrics of a complement engine: calls, bytes, time, and a latency histogram. All lock-free, so this
+ * can stay on under real load. Each call can also be recorded as a flight recorder event
+ * ({@link ComplementEvent}), which costs (next to) nothing while no recording has the event enabled. The
+ * event class is only touched once the flight recorder has started: loading it starts JFR (about a hundred
+ * classes, which the class data sharing archive cannot hold), which would slow down every startup.
+ *
+ * Usage, in an engine:
+ *
+ *   long start = METRICS.begin();
+ *   Object event = METRICS.beginEvent();
+ *   ... convert ...
+ *   METRICS.end(start, event, length, chunks, threads);
+ *
+ * Switch off completely with -Dcontest.metrics=false. The metrics are published over JMX (as
+ * contest:type=ComplementEngine,name=...) with -Dcontest.metrics.jmx=true, or by calling
+ * {@link #registerMBeans()}; not by default, since starting the platform MBean server costs startup time.
+ */
+public final class EngineMetrics implements EngineMetricsMXBean {
+
+    public static final boolean ENABLED = !"false".equals(System.getProperty("contest.metrics"));
+
+    static final boolean JFR_AVAILABLE = ENABLED && isJfrAvailable();
+
+    private static final Map<String, EngineMetrics> ENGINES = new ConcurrentHashMap<>();
+    private static volatile boolean mbeansRegistered;
+
+    private final String engine;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private EngineMetrics(String engine) {
+        this.engine = engine;
+    }
+
+    private static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder", false, EngineMetrics.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param engine engine name
+     * @return the metrics of that engine (created on first use)
+     */
+    public static EngineMetrics forEngine(String engine) {
+        EngineMetrics metrics = ENGINES.computeIfAbsent(engine, EngineMetrics::new);
+        if (mbeansRegistered || Boolean.getBoolean("contest.metrics.jmx")) {
+            registerMBeans();
+        }
+        return metrics;
+    }
+
+    /**
+     * Publish the metrics of all engines (also the ones created later) over JMX.
+     */
+    public static synchronized void registerMBeans() {
+        mbeansRegistered = true;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (EngineMetrics metrics : ENGINES.values()) {
+            try {
+                ObjectName name = new ObjectName("contest:type=ComplementEngine,name=" + ObjectName.quote(metrics.engine));
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(metrics, name);
+                }
+            } catch (JMException e) {
+                throw new IllegalStateException("Cannot register metrics of " + metrics.engine, e);
+            }
+        }
+    }
+
+    /**
+     * @return start time of a call, to pass to {@link #end}
+     */
+    public long begin() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * @return the flight recorder event for a call, to pass to {@link #end}, or null when not recording
+     */
+    public Object beginEvent() {
+        return JFR_AVAILABLE && FlightRecorder.isInitialized() ? ComplementEvent.start() : null;
+    }
+
+    /**
+     * Record a finished call.
+     *
+     * @param start from {@link #begin}
+     * @param event from {@link #beginEvent}
+     * @param length number of characters converted
+     * @param chunks number of parts the work was split in
+     * @param threads number of threads available for the work
+     */
+    public void end(long start, Object event, long length, int chunks, int threads) {
+        if (!ENABLED) {
+            return;
+        }
+        long duration = System.nanoTime() - start;
+        calls.increment();
+        bytes.add(length);
+        nanos.add(duration);
+        latency.record(duration);
+        if (event != null) {
+            ((ComplementEvent) event).finish(engine, length, chunks, threads);
+        }
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String getEngine() {
+        return engine;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    @Override
+    public double getMbPerSecond() {
+        return StageCounters.mbPerSecond(getBytes(), nanos.sum());
+    }
+
+    @Override
+    public long getLatencyP50Micros() {
+        return latency.getValueAtPercentile(50) / 1000;
+    }
+
+    @Override
+    public long getLatencyP99Micros() {
+        return latency.getValueAtPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getLatencyP999Micros() {
+        return latency.getValueAtPercentile(99.9) / 1000;
+    }
+
+    @Override
+    public long getLatencyMaxMicros() {
+        return latency.getMax() / 1000;
+    }
+}
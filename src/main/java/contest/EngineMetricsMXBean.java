@@ -0,0 +1,26 @@
+package contest;
+
+/**
+ * JMX view of the {@link EngineMetrics} of one complement engine.
+ */
+public interface EngineMetricsMXBean {
+
+    String getEngine();
+
+    long getCalls();
+
+    long getBytes();
+
+    /**
+     * @return throughput in MB/s, over the time spent in calls
+     */
+    double getMbPerSecond();
+
+    long getLatencyP50Micros();
+
+    long getLatencyP99Micros();
+
+    long getLatencyP999Micros();
+
+    long getLatencyMaxMicros();
+}
@@ -0,0 +1,34 @@
+package contest;
+
+/**
+ * Loads generated kernel classes: each in its own class loader, so it can be unloaded again when its
+ * engine is no longer used.
+ */
+final class KernelDefiner {
+
+    private KernelDefiner() {
+    }
+
+    /**
+     * @param classFile from KernelGenerator
+     * @return a new instance of the class
+     */
+    static TranslationEngine.Kernel define(byte[] classFile) {
+        try {
+            Class<?> kernelClass = new Loader().define(classFile);
+            return (TranslationEngine.Kernel) kernelClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot load generated kernel", e);
+        }
+    }
+
+    private static class Loader extends ClassLoader {
+        Loader() {
+            super(KernelDefiner.class.getClassLoader());
+        }
+
+        Class<?> define(byte[] classFile) {
+            return defineClass(KernelGenerator.CLASS_NAME, classFile, 0, classFile.length);
+        }
+    }
+}
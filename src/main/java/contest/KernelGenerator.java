@@ -0,0 +1,272 @@
+package contest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Writes the class file of a translation kernel for one mapping: the switch loop of the hand-written
+ * contenders (#10, #16), with the mapping as constants in the code, so the JIT compiles it just like those.
+ *
+ * The class is (in Java):
+ *
+ *   public final class GeneratedKernel implements TranslationEngine.Kernel {
+ *       public void translate(byte[] data, int from, int to) {
+ *           for (int i = from; i < to; i++) {
+ *               switch (data[i]) {
+ *                   case 'A': data[i] = 'T'; break;
+ *                   ...
+ *               }
+ *           }
+ *       }
+ *       (the same for char[])
+ *   }
+ *
+ * Class file version 49 (Java 5), which needs no stack map frames; every JVM since still loads it.
+ */
+final class KernelGenerator {
+
+    static final String CLASS_NAME = "contest.GeneratedKernel";
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    // constant pool indexes, see generate
+    private static final int THIS_CLASS = 2;
+    private static final int OBJECT_CLASS = 4;
+    private static final int KERNEL_CLASS = 6;
+    private static final int INIT_NAME = 7;
+    private static final int INIT_DESCRIPTOR = 8;
+    private static final int OBJECT_INIT = 10;
+    private static final int CODE = 11;
+    private static final int TRANSLATE_NAME = 12;
+    private static final int TRANSLATE_BYTES = 13;
+    private static final int TRANSLATE_CHARS = 14;
+
+    private static final int ILOAD = 0x15;
+    private static final int ILOAD_2 = 0x1c;
+    private static final int ILOAD_3 = 0x1d;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ISTORE = 0x36;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int BALOAD = 0x33;
+    private static final int CALOAD = 0x34;
+    private static final int BASTORE = 0x54;
+    private static final int CASTORE = 0x55;
+    private static final int IINC = 0x84;
+    private static final int IF_ICMPGE = 0xa2;
+    private static final int GOTO = 0xa7;
+    private static final int LOOKUPSWITCH = 0xab;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+
+    private KernelGenerator() {
+    }
+
+    /**
+     * @param table the mapping: character c becomes table[c] (for c &lt; 256, others stay)
+     * @return the class file
+     */
+    static byte[] generate(byte[] table) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xcafebabe);
+            out.writeShort(0);
+            out.writeShort(49);
+
+            out.writeShort(15);
+            utf8(out, CLASS_NAME.replace('.', '/'));
+            classRef(out, 1);
+            utf8(out, "java/lang/Object");
+            classRef(out, 3);
+            utf8(out, TranslationEngine.Kernel.class.getName().replace('.', '/'));
+            classRef(out, 5);
+            utf8(out, "<init>");
+            utf8(out, "()V");
+            out.writeByte(12); // name and type
+            out.writeShort(INIT_NAME);
+            out.writeShort(INIT_DESCRIPTOR);
+            out.writeByte(10); // method ref
+            out.writeShort(OBJECT_CLASS);
+            out.writeShort(9);
+            utf8(out, "Code");
+            utf8(out, "translate");
+            utf8(out, "([BII)V");
+            utf8(out, "([CII)V");
+
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(THIS_CLASS);
+            out.writeShort(OBJECT_CLASS);
+            out.writeShort(1);
+            out.writeShort(KERNEL_CLASS);
+            out.writeShort(0); // fields
+
+            out.writeShort(3);
+            method(out, INIT_NAME, INIT_DESCRIPTOR, 1, 1,
+                new byte[] {(byte) ALOAD_0, (byte) INVOKESPECIAL, 0, OBJECT_INIT, (byte) RETURN});
+            method(out, TRANSLATE_NAME, TRANSLATE_BYTES, 3, 5, translateLoop(table, false));
+            method(out, TRANSLATE_NAME, TRANSLATE_CHARS, 3, 5, translateLoop(table, true));
+
+            out.writeShort(0); // class attributes
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void utf8(DataOutputStream out, String value) throws IOException {
+        out.writeByte(1);
+        out.writeUTF(value);
+    }
+
+    private static void classRef(DataOutputStream out, int name) throws IOException {
+        out.writeByte(7);
+        out.writeShort(name);
+    }
+
+    private static void method(DataOutputStream out, int name, int descriptor, int maxStack, int maxLocals,
+                               byte[] code) throws IOException {
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(CODE);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // code attributes
+    }
+
+    /**
+     * The code of translate(data, from, to); locals: 1 data, 2 from, 3 to, 4 i.
+     */
+    private static byte[] translateLoop(byte[] table, boolean chars) {
+        // the case keys, in the order the switch needs (ascending, as the loaded value: signed for bytes)
+        int[] keys = new int[256];
+        int cases = 0;
+        for (int key = chars ? 0 : -128; key < (chars ? 256 : 128); key++) {
+            if (table[key & 0xff] != (byte) key) {
+                keys[cases++] = key;
+            }
+        }
+
+        Code code = new Code();
+        code.op(ILOAD_2);
+        code.op(ISTORE);
+        code.op(4);
+        int loop = code.position();
+        code.op(ILOAD);
+        code.op(4);
+        code.op(ILOAD_3);
+        int exitJump = code.position();
+        code.op(IF_ICMPGE);
+        code.u2(0); // patched below
+        code.op(ALOAD_1);
+        code.op(ILOAD);
+        code.op(4);
+        code.op(chars ? CALOAD : BALOAD);
+
+        int switchStart = code.position();
+        code.op(LOOKUPSWITCH);
+        while (code.position() % 4 != 0) {
+            code.op(0);
+        }
+        int defaultOffset = code.position();
+        code.u4(0); // patched below
+        code.u4(cases);
+        int pairs = code.position();
+        for (int c = 0; c < cases; c++) {
+            code.u4(keys[c]);
+            code.u4(0); // patched below
+        }
+
+        int[] gotoNext = new int[cases];
+        for (int c = 0; c < cases; c++) {
+            code.patch4(pairs + 8 * c + 4, code.position() - switchStart);
+            code.op(ALOAD_1);
+            code.op(ILOAD);
+            code.op(4);
+            int value = table[keys[c] & 0xff];
+            if (chars) {
+                code.op(SIPUSH);
+                code.u2(value & 0xff);
+                code.op(CASTORE);
+            } else {
+                code.op(BIPUSH);
+                code.op(value);
+                code.op(BASTORE);
+            }
+            gotoNext[c] = code.position();
+            code.op(GOTO);
+            code.u2(0); // patched below
+        }
+
+        int next = code.position();
+        code.patch4(defaultOffset, next - switchStart);
+        for (int jump : gotoNext) {
+            code.patch2(jump + 1, next - jump);
+        }
+        code.op(IINC);
+        code.op(4);
+        code.op(1);
+        code.op(GOTO);
+        code.u2(loop - (code.position() - 1));
+
+        code.patch2(exitJump + 1, code.position() - exitJump);
+        code.op(RETURN);
+        return code.toByteArray();
+    }
+
+    /**
+     * Byte code buffer, with patching of jump offsets.
+     */
+    private static class Code {
+        private byte[] code = new byte[256];
+        private int length;
+
+        int position() {
+            return length;
+        }
+
+        void op(int value) {
+            if (length == code.length) {
+                code = Arrays.copyOf(code, length * 2);
+            }
+            code[length++] = (byte) value;
+        }
+
+        void u2(int value) {
+            op(value >> 8);
+            op(value);
+        }
+
+        void u4(int value) {
+            u2(value >> 16);
+            u2(value);
+        }
+
+        void patch2(int at, int value) {
+            code[at] = (byte) (value >> 8);
+            code[at + 1] = (byte) value;
+        }
+
+        void patch4(int at, int value) {
+            patch2(at, value >> 16);
+            patch2(at + 2, value);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(code, length);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package contest;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Picks the fastest kernels of this runtime, once, when the class is loaded.
+ *
+ * This is the java 8 version. The jar is a multi-release jar, with versions of this class for newer
+ * runtimes in META-INF/versions (sources in src/java9 and src/java17); the JVM loads the one for its
+ * version. Keep the methods the same in all versions.
+ *
+ * Java 8: the table loop (see TranslationEngine), and Strings are converted as char[] (their layout).
+ */
+final class Kernels {
+
+    private Kernels() {
+    }
+
+    /**
+     * @return which kernels are used (a method, not a constant: constants are compiled into the callers)
+     */
+    static String description() {
+        // also loaded by newer runtimes when not run from the jar (see the class comment)
+        String version = System.getProperty("java.specification.version");
+        return "java " + (version.startsWith("1.") ? version.substring(2) : version)
+            + ": table kernel, Strings as char[]";
+    }
+
+    /**
+     * @param table the mapping: character c becomes table[c]
+     * @return the fastest kernel for it
+     */
+    static TranslationEngine.Kernel create(byte[] table) {
+        return new TranslationEngine.TableKernel(table);
+    }
+
+    /**
+     * Translate a String, the fastest way for the String layout of this runtime.
+     *
+     * @param engine the engine
+     * @param input the String
+     * @param pool the pool to run in, or null for sequential
+     * @return the translated String
+     */
+    static String translate(TranslationEngine engine, String input, ForkJoinPool pool) {
+        char[] chars = input.toCharArray();
+        if (pool == null) {
+            engine.translate(chars, 0, chars.length);
+        } else {
+            engine.translateParallel(chars, 0, chars.length, pool);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,236 @@
+package contest;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Canonical k-mers of a chain, in one pass: no complemented copy of the chain is made.
+ *
+ * Every base is encoded in 2 bits (A=0, C=1, G=2, T=3, so the complement is 3 - code), and two rolling
+ * k-mers are kept in step: the forward one shifts the new base in at the bottom, the reverse complement one
+ * shifts the complemented base in at the top. The canonical k-mer is the smaller of the two (unsigned), so a
+ * k-mer and its reverse complement get the same value. With k up to 32 a k-mer fits in a long, and the
+ * value is a perfect hash of the k-mer; use {@link #hash(long)} when well spread bits are needed.
+ *
+ * Any other character (N, newline, ...) breaks the chain: k-mers containing it are skipped.
+ *
+ * The parallel versions split the start positions, like ChainOpposite (#16) splits the chain; every part
+ * also reads the k - 1 characters after its last start, so k-mers across the part boundaries are found.
+ */
+public final class KmerExtractor {
+
+    public static final int MAX_K = 32;
+
+    /**
+     * Marks a start position without k-mer (it contains another character than ACGT). Never a canonical
+     * k-mer: all 1 bits is TTT..T, whose reverse complement AAA..A is smaller.
+     */
+    public static final long NO_KMER = -1;
+
+    private static final byte[] CODES = new byte[256];
+
+    static {
+        Arrays.fill(CODES, (byte) -1);
+        CODES['A'] = 0;
+        CODES['C'] = 1;
+        CODES['G'] = 2;
+        CODES['T'] = 3;
+    }
+
+    /**
+     * Receives k-mers, without boxing.
+     */
+    @FunctionalInterface
+    public interface KmerSink {
+        /**
+         * @param position start of the k-mer in the data
+         * @param kmer the canonical k-mer
+         */
+        void accept(int position, long kmer);
+    }
+
+    private final int k;
+    private final long mask;
+    private final int topShift;
+
+    /**
+     * @param k the k-mer length, 1 - 32
+     */
+    public KmerExtractor(int k) {
+        if (k < 1 || k > MAX_K) {
+            throw new IllegalArgumentException("k must be 1 - " + MAX_K + ": " + k);
+        }
+        this.k = k;
+        this.mask = k == MAX_K ? -1L : (1L << 2 * k) - 1;
+        this.topShift = 2 * (k - 1);
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    private static long canonical(long forward, long reverse) {
+        return Long.compareUnsigned(forward, reverse) <= 0 ? forward : reverse;
+    }
+
+    /**
+     * Spread the bits of a k-mer (the murmur3 finalizer), for hash tables and sketches.
+     *
+     * @param kmer a k-mer
+     * @return its hash
+     */
+    public static long hash(long kmer) {
+        long h = kmer;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Call the sink for every k-mer in a range, in order.
+     *
+     * @param data the characters (ASCII)
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param sink receives the k-mers
+     */
+    public void forEach(byte[] data, int from, int to, KmerSink sink) {
+        long forward = 0;
+        long reverse = 0;
+        int valid = 0;
+        for (int i = from; i < to; i++) {
+            int code = CODES[data[i] & 0xff];
+            if (code < 0) {
+                valid = 0;
+                continue;
+            }
+            forward = (forward << 2 | code) & mask;
+            reverse = reverse >>> 2 | (long) (3 - code) << topShift;
+            if (++valid >= k) {
+                sink.accept(i - k + 1, canonical(forward, reverse));
+            }
+        }
+    }
+
+    /**
+     * Call the sink for every k-mer in a range, using the given pool. The sink is called from several
+     * threads, in no particular order.
+     *
+     * @param data the characters (ASCII)
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param pool the pool to run in
+     * @param sink receives the k-mers, must be thread safe
+     */
+    public void forEachParallel(byte[] data, int from, int to, ForkJoinPool pool, KmerSink sink) {
+        if (to - from >= k) {
+            pool.invoke(new KmerTask(data, from, to - k + 1, null, 0, sink));
+        }
+    }
+
+    /**
+     * @param length length of a range
+     * @return the number of k-mer start positions in it
+     */
+    public int positions(int length) {
+        return Math.max(0, length - k + 1);
+    }
+
+    /**
+     * The canonical k-mer at every start position of a range.
+     *
+     * @param data the characters (ASCII)
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @return per start position (from, from + 1, ...) the k-mer, or {@link #NO_KMER}
+     */
+    public long[] canonicalKmers(byte[] data, int from, int to) {
+        long[] kmers = new long[positions(to - from)];
+        fill(data, from, to, kmers, 0);
+        return kmers;
+    }
+
+    /**
+     * The canonical k-mer at every start position of a range, using the given pool.
+     *
+     * @param data the characters (ASCII)
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param pool the pool to run in
+     * @return per start position (from, from + 1, ...) the k-mer, or {@link #NO_KMER}
+     */
+    public long[] canonicalKmersParallel(byte[] data, int from, int to, ForkJoinPool pool) {
+        long[] kmers = new long[positions(to - from)];
+        if (kmers.length > 0) {
+            pool.invoke(new KmerTask(data, from, from + kmers.length, kmers, from, null));
+        }
+        return kmers;
+    }
+
+    /**
+     * Write the k-mers of data[from, to) to kmers, the one starting at from at index offset.
+     */
+    void fill(byte[] data, int from, int to, long[] kmers, int offset) {
+        long forward = 0;
+        long reverse = 0;
+        int valid = 0;
+        int out = offset - k + 1;
+        for (int i = from; i < to; i++) {
+            int code = CODES[data[i] & 0xff];
+            if (code < 0) {
+                valid = 0;
+            } else {
+                forward = (forward << 2 | code) & mask;
+                reverse = reverse >>> 2 | (long) (3 - code) << topShift;
+                valid++;
+            }
+            if (i - from >= k - 1) {
+                kmers[out + i - from] = valid >= k ? canonical(forward, reverse) : NO_KMER;
+            }
+        }
+    }
+
+    /**
+     * Split the start positions in halves until small enough, then extract directly.
+     */
+    private class KmerTask extends RecursiveAction {
+        private final byte[] data;
+        private final int firstStart;
+        private final int endStart;
+        private final long[] kmers;
+        private final int kmersBase;
+        private final KmerSink sink;
+
+        KmerTask(byte[] data, int firstStart, int endStart, long[] kmers, int kmersBase, KmerSink sink) {
+            this.data = data;
+            this.firstStart = firstStart;
+            this.endStart = endStart;
+            this.kmers = kmers;
+            this.kmersBase = kmersBase;
+            this.sink = sink;
+        }
+
+        @Override
+        protected void compute() {
+            if (endStart - firstStart < ComplementKernel.WORK_SIZE_THRESHOLD) {
+                // the last k-mer starts at endStart - 1, and ends k - 1 further
+                int to = endStart + k - 1;
+                if (sink != null) {
+                    forEach(data, firstStart, to, sink);
+                } else {
+                    fill(data, firstStart, to, kmers, firstStart - kmersBase);
+                }
+                return;
+            }
+
+            int split = firstStart + (endStart - firstStart) / 2;
+            invokeAll(
+                new KmerTask(data, firstStart, split, kmers, kmersBase, sink),
+                new KmerTask(data, split, endStart, kmers, kmersBase, sink));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package contest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram, with the same layout idea as HdrHistogram: every power of 2 range is split
+ * in {@link #SUB_BUCKET_COUNT} linear sub-buckets. So values from 1ns to hours are recorded with a fixed
+ * relative precision (about 3%), in a small fixed array, and recording is one atomic increment.
+ *
+ * Safe to record from many threads at once. Reading while recording gives a (slightly) inconsistent,
+ * but usable, view.
+ */
+public class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 6;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BUCKET_BITS + 1) * HALF_SUB_BUCKET_COUNT
+        + HALF_SUB_BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS + 1;
+        return shift * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    /**
+     * @return the highest value that is recorded at this index
+     */
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / HALF_SUB_BUCKET_COUNT - 1;
+        long subBucket = index % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Record a value (negative values count as 0).
+     *
+     * @param value the value, e.g. a latency in ns
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(indexOf(v));
+        totalCount.incrementAndGet();
+        long current;
+        while (v > (current = max.get()) && !max.compareAndSet(current, v)) {
+            // retry, another thread raised the max meanwhile
+        }
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile 0 - 100 (like 99.9)
+     * @return the value below which (at least) that percentage of the recorded values lies, or 0 when empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueAt(i), getMax());
+            }
+        }
+        return getMax();
+    }
+}
@@ -0,0 +1,363 @@
+package contest;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Run the contest in forked JVMs, for a matrix of JDKs, garbage collectors, heap sizes and compact strings
+ * on/off, and show all results in one table (contenders by configurations).
+ *
+ * Configurations a JDK does not support (like ZGC on java 8, or Shenandoah in builds without it) are
+ * detected up front with a "java -version" probe, and left out. When a run fails (Epsilon will run out of
+ * memory, it never collects) or times out, the contenders it did not finish show up as "fail"; the results
+ * of those before are kept.
+ *
+ * Options (all optional, comma separated lists):
+ *
+ * --jdks /path/to/jdk,...        default: all JDKs found in the usual install locations
+ * --gcs G1,Parallel,ZGC,Shenandoah,Epsilon
+ * --heaps 4g,...                 used for both -Xms and -Xmx
+ * --compact-strings on,off
+ * --contenders 14,16,...         default: all
+ */
+public class MatrixRunner {
+
+    static final long RUN_TIMEOUT_MINUTES = 30;
+
+    static final String COMPACT_STRINGS_ON = "-XX:+CompactStrings";
+    static final String COMPACT_STRINGS_OFF = "-XX:-CompactStrings";
+
+    static final Map<String, String> GC_FLAGS = new LinkedHashMap<>();
+    static {
+        GC_FLAGS.put("G1", "-XX:+UseG1GC");
+        GC_FLAGS.put("Parallel", "-XX:+UseParallelGC");
+        GC_FLAGS.put("ZGC", "-XX:+UseZGC");
+        GC_FLAGS.put("Shenandoah", "-XX:+UseShenandoahGC");
+        GC_FLAGS.put("Epsilon", "-XX:+UseEpsilonGC");
+    }
+
+    /** Matches a result line of the contest report: description | length | hash | time | notes */
+    static final Pattern RESULT_LINE =
+        Pattern.compile("^(\\(#\\d+\\).*?)\\s*\\|\\s*(-?\\d+)\\s*\\|\\s*(-?\\d+)\\s*\\|\\s*(\\d+)ms\\s*\\|\\s*(.*)$");
+
+    private static final Pattern JAVA_VERSION = Pattern.compile("version \"(1\\.)?(\\d+)");
+
+    /**
+     * One cell of the matrix: a JDK and a set of JVM flags.
+     */
+    static class Configuration {
+        final File jdk;
+        final int javaVersion;
+        final String gc;
+        final String heap;
+        final Boolean compactStrings;
+
+        Configuration(File jdk, int javaVersion, String gc, String heap, Boolean compactStrings) {
+            this.jdk = jdk;
+            this.javaVersion = javaVersion;
+            this.gc = gc;
+            this.heap = heap;
+            this.compactStrings = compactStrings;
+        }
+
+        List<String> flags() {
+            // experimental on some versions (ZGC before 15, Epsilon), harmless otherwise
+            List<String> flags = new ArrayList<>(Arrays.asList("-XX:+UnlockExperimentalVMOptions", GC_FLAGS.get(gc),
+                "-Xms" + heap, "-Xmx" + heap));
+            if (compactStrings != null) {
+                flags.add(compactStrings ? COMPACT_STRINGS_ON : COMPACT_STRINGS_OFF);
+            }
+            return flags;
+        }
+
+        String label() {
+            return "java" + javaVersion + " " + gc + " " + heap
+                + (compactStrings == null ? "" : compactStrings ? " +CS" : " -CS");
+        }
+
+        String java() {
+            return new File(new File(jdk, "bin"), "java").getPath();
+        }
+    }
+
+    /**
+     * Find the JDKs (and JREs) installed in the usual places, plus the one running this.
+     */
+    static List<File> findJdks() {
+        Set<File> result = new LinkedHashSet<>();
+        addJdk(result, new File(System.getProperty("java.home")));
+        String home = System.getProperty("user.home");
+        for (String location : Arrays.asList("/usr/lib/jvm", "/usr/java", "/opt/java", home + "/.sdkman/candidates/java",
+            home + "/.jdks", "/Library/Java/JavaVirtualMachines")) {
+            File[] candidates = new File(location).listFiles();
+            if (candidates != null) {
+                Arrays.sort(candidates);
+                for (File candidate : candidates) {
+                    addJdk(result, candidate);
+                    addJdk(result, new File(candidate, "Contents/Home"));
+                }
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static void addJdk(Set<File> jdks, File home) {
+        try {
+            File canonical = home.getCanonicalFile();
+            // a java 8 "java.home" is the jre inside the jdk
+            if (canonical.getName().equals("jre") && new File(canonical.getParentFile(), "bin/java").canExecute()) {
+                canonical = canonical.getParentFile();
+            }
+            if (new File(canonical, "bin/java").canExecute()) {
+                jdks.add(canonical);
+            }
+        } catch (IOException e) {
+            // not a usable location
+        }
+    }
+
+    /**
+     * Run "java [flags] -version".
+     *
+     * @return the java feature version (8, 11, 17, ...), or -1 when the JVM does not start with these flags
+     */
+    static int probe(File jdk, List<String> flags) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(new File(new File(jdk, "bin"), "java").getPath());
+        command.addAll(flags);
+        command.add("-version");
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = readAll(process);
+        if (process.waitFor() != 0) {
+            return -1;
+        }
+        Matcher version = JAVA_VERSION.matcher(output);
+        return version.find() ? Integer.parseInt(version.group(2)) : -1;
+    }
+
+    private static String readAll(Process process) throws IOException {
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.append(line).append('\n');
+            }
+        }
+        return output.toString();
+    }
+
+    /**
+     * Run the contest in a forked JVM, stopping it after RUN_TIMEOUT_MINUTES.
+     *
+     * @return time in ms per contender description, of the contenders that finished (all of them, unless the
+     *         run failed or timed out); a time is negative when the contender gave a wrong result
+     */
+    static Map<String, Long> runContest(Configuration configuration, String contenders)
+        throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(configuration.java());
+        command.addAll(configuration.flags());
+        if (contenders != null) {
+            command.add("-Dcontest.contenders=" + contenders);
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Contest.class.getName());
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Map<String, Long> times = Collections.synchronizedMap(new LinkedHashMap<>());
+        // the output is read on its own thread, so a contest that hangs cannot keep us past the timeout
+        Thread output = new Thread(() -> readResults(process, times), "contest-output");
+        output.setDaemon(true);
+        output.start();
+        if (!process.waitFor(RUN_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+            System.out.println("  Timed out after " + RUN_TIMEOUT_MINUTES + " minutes");
+            process.destroyForcibly().waitFor();
+        } else if (process.exitValue() != 0) {
+            System.out.println("  Failed with exit code " + process.exitValue());
+        }
+        output.join();
+        return times;
+    }
+
+    /**
+     * Echo the output of a contest run, and collect the times of its result lines.
+     */
+    private static void readResults(Process process, Map<String, Long> times) {
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                System.out.println("  " + line);
+                Matcher result = RESULT_LINE.matcher(line);
+                if (result.matches()) {
+                    long timeMs = Long.parseLong(result.group(4));
+                    boolean wrong = result.group(5).contains("mismatch");
+                    times.put(result.group(1), wrong ? -timeMs : timeMs);
+                }
+            }
+        } catch (IOException e) {
+            // the process was stopped, keep the results so far
+        }
+    }
+
+    /**
+     * Build the matrix: every combination the JDK supports.
+     */
+    static List<Configuration> configurations(List<File> jdks, List<String> gcs, List<String> heaps,
+                                              List<Boolean> compactStrings) throws IOException, InterruptedException {
+        List<Configuration> result = new ArrayList<>();
+        for (File jdk : jdks) {
+            // java 8 has no compact strings (the flag is unknown there), so those run once, without the flag
+            List<Boolean> compactOptions = probe(jdk, Collections.singletonList(COMPACT_STRINGS_ON)) < 0
+                ? Collections.singletonList(null) : compactStrings;
+            for (String gc : gcs) {
+                for (String heap : heaps) {
+                    for (Boolean compact : compactOptions) {
+                        Configuration configuration = new Configuration(jdk, 0, gc, heap, compact);
+                        int version = probe(jdk, configuration.flags());
+                        if (version < 0) {
+                            System.out.println("Skipping (not supported): " + jdk + " " + configuration.flags());
+                        } else {
+                            result.add(new Configuration(jdk, version, gc, heap, compact));
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Print one table: a row per contender, a column per configuration, and the best configuration per contender.
+     */
+    static void report(List<Configuration> configurations, List<Map<String, Long>> results) {
+        Set<String> descriptions = new LinkedHashSet<>();
+        for (Map<String, Long> result : results) {
+            descriptions.addAll(result.keySet());
+        }
+        int descriptionWidth = descriptions.stream().mapToInt(String::length).max().orElse(20);
+
+        System.out.println();
+        for (int i = 0; i < configurations.size(); i++) {
+            Configuration configuration = configurations.get(i);
+            System.out.println(String.format("C%-3d = %s %s", i + 1, configuration.java(), configuration.flags()));
+        }
+        System.out.println();
+
+        StringBuilder header = new StringBuilder(String.format("%-" + descriptionWidth + "s", "Contender"));
+        for (int i = 0; i < configurations.size(); i++) {
+            header.append(String.format(" | %6s", "C" + (i + 1)));
+        }
+        header.append(" | Best");
+        System.out.println(header);
+        for (int i = 0; i < header.length(); i++) {
+            System.out.print('-');
+        }
+        System.out.println();
+
+        for (String description : descriptions) {
+            StringBuilder line = new StringBuilder(String.format("%-" + descriptionWidth + "s", description));
+            int best = -1;
+            long bestTime = Long.MAX_VALUE;
+            for (int i = 0; i < configurations.size(); i++) {
+                Long time = results.get(i).get(description);
+                if (time == null) {
+                    line.append(String.format(" | %6s", "fail"));
+                } else if (time < 0) {
+                    line.append(String.format(" | %6s", "wrong"));
+                } else {
+                    line.append(String.format(" | %4dms", time));
+                    if (time < bestTime) {
+                        bestTime = time;
+                        best = i;
+                    }
+                }
+            }
+            line.append(" | ").append(best < 0 ? "-" : "C" + (best + 1) + " " + configurations.get(best).label());
+            System.out.println(line);
+        }
+    }
+
+    private static List<String> list(String value) {
+        List<String> result = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.trim().isEmpty()) {
+                result.add(item.trim());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Command line entry point, see the class comment for the options.
+     *
+     * @param args options
+     * @throws Exception on error
+     */
+    public static void main(String[] args) throws Exception {
+        List<File> jdks = findJdks();
+        List<String> gcs = new ArrayList<>(GC_FLAGS.keySet());
+        List<String> heaps = Arrays.asList("4g");
+        List<Boolean> compactStrings = Arrays.asList(true, false);
+        String contenders = null;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--jdks":
+                    jdks = new ArrayList<>();
+                    for (String jdk : list(value)) {
+                        jdks.add(new File(jdk));
+                    }
+                    break;
+                case "--gcs":
+                    gcs = list(value);
+                    for (String gc : gcs) {
+                        if (!GC_FLAGS.containsKey(gc)) {
+                            throw new IllegalArgumentException("Unknown collector " + gc + ", use one of " + GC_FLAGS.keySet());
+                        }
+                    }
+                    break;
+                case "--heaps":
+                    heaps = list(value);
+                    break;
+                case "--compact-strings":
+                    compactStrings = new ArrayList<>();
+                    for (String onOff : list(value)) {
+                        compactStrings.add("on".equals(onOff));
+                    }
+                    break;
+                case "--contenders":
+                    contenders = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        List<Configuration> configurations = configurations(jdks, gcs, heaps, compactStrings);
+        List<Map<String, Long>> results = new ArrayList<>();
+        for (Configuration configuration : configurations) {
+            System.out.println("Running " + configuration.label() + ": " + configuration.java() + " " + configuration.flags());
+            results.add(runContest(configuration, contenders));
+        }
+
+        report(configurations, results);
+    }
+}
@@ -0,0 +1,139 @@
+package contest;
+
+/**
+ * Statistics of a chain, gathered while converting it (see ComplementKernel.complementWithStats), so the
+ * chain does not have to be read a second time for them.
+ *
+ * Counts are of the input bases (so "a" counts the A's that became T's). N is a valid (unknown) base, every
+ * other character counts as invalid. Offsets are relative to the start of the converted range.
+ *
+ * Statistics of consecutive ranges can be merged, which is how the parallel (ForkJoin) version combines
+ * the results of its parts.
+ */
+public final class SequenceStats {
+
+    long length;
+    long a;
+    long c;
+    long g;
+    long t;
+    long n;
+    long invalid;
+    long firstInvalid = -1;
+
+    /** N's at the start of the range, at the end, and the longest run of N's. */
+    long leadingN;
+    long trailingN;
+    long longestNRun;
+
+    /** String.hashCode() of the converted range (when asked for). */
+    boolean hashed;
+    int hash;
+
+    /**
+     * Combine with the statistics of the range directly after this one.
+     *
+     * @param next statistics of the next range
+     * @return this, updated
+     */
+    SequenceStats merge(SequenceStats next) {
+        if (firstInvalid < 0 && next.firstInvalid >= 0) {
+            firstInvalid = length + next.firstInvalid;
+        }
+        longestNRun = Math.max(Math.max(longestNRun, next.longestNRun), trailingN + next.leadingN);
+        if (leadingN == length) {
+            leadingN += next.leadingN;
+        }
+        trailingN = next.trailingN == next.length ? trailingN + next.length : next.trailingN;
+        hashed = hashed && next.hashed;
+        hash = hash * power31(next.length) + next.hash;
+
+        length += next.length;
+        a += next.a;
+        c += next.c;
+        g += next.g;
+        t += next.t;
+        n += next.n;
+        invalid += next.invalid;
+        return this;
+    }
+
+    /**
+     * @return 31 to the power, in int arithmetic (like String.hashCode uses)
+     */
+    static int power31(long exponent) {
+        int result = 1;
+        int base = 31;
+        for (long e = exponent; e > 0; e >>= 1) {
+            if ((e & 1) != 0) {
+                result *= base;
+            }
+            base *= base;
+        }
+        return result;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public long getA() {
+        return a;
+    }
+
+    public long getC() {
+        return c;
+    }
+
+    public long getG() {
+        return g;
+    }
+
+    public long getT() {
+        return t;
+    }
+
+    public long getN() {
+        return n;
+    }
+
+    public long getInvalid() {
+        return invalid;
+    }
+
+    /**
+     * @return offset of the first invalid character, or -1 when all are valid
+     */
+    public long getFirstInvalid() {
+        return firstInvalid;
+    }
+
+    public long getLongestNRun() {
+        return longestNRun;
+    }
+
+    /**
+     * @return the GC content: (C + G) / (A + C + G + T), 0 when there are no bases
+     */
+    public double getGcFraction() {
+        long bases = a + c + g + t;
+        return bases == 0 ? 0 : (double) (c + g) / bases;
+    }
+
+    /**
+     * @return String.hashCode() of the converted chain
+     * @throws IllegalStateException when the hash was not asked for
+     */
+    public int getHash() {
+        if (!hashed) {
+            throw new IllegalStateException("Hash was not computed");
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("length=%d A=%d C=%d G=%d T=%d N=%d invalid=%d firstInvalid=%d longestNRun=%d gc=%.4f%s",
+            length, a, c, g, t, n, invalid, firstInvalid, longestNRun, getGcFraction(), hashed ? " hash=" + hash : "");
+    }
+}
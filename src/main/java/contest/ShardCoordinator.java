@@ -0,0 +1,313 @@
+package contest;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Complement a (large) file with several worker JVMs, the scale-out version of the ForkJoin contenders (#14, #16).
+ *
+ * The input is split in byte-range shards. Every worker process ({@link ShardWorker}) gets shards over its
+ * stdin/stdout pipe, and writes the converted bytes in place, at the same offset, in the (pre-sized) output file.
+ * A shard that fails, or whose worker dies or does not answer within the shard timeout, is handed out again (to a
+ * fresh worker) up to {@link #MAX_ATTEMPTS} times.
+ *
+ * Each worker converts its shard with the parallel kernel, with the common pool sized to its share of the cores,
+ * so N workers together do not oversubscribe the machine.
+ */
+public class ShardCoordinator {
+
+    public static final int DEFAULT_SHARD_SIZE = 16 * 1024 * 1024;
+    public static final int MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_SHARD_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /** Marks the end of the replies of a worker (its stdout closed). */
+    private static final String END_OF_REPLIES = new String("END");
+
+    private final Path input;
+    private final Path output;
+    private final int workerCount;
+    private final int shardSize;
+    private final long shardTimeoutMillis;
+
+    /** Main class of the workers (a test can replace it). */
+    String workerClass = ShardWorker.class.getName();
+
+    /**
+     * A byte range of the input, and the number of times it was handed out.
+     */
+    static class Shard {
+        final int id;
+        final long offset;
+        final int length;
+        int attempts;
+
+        Shard(int id, long offset, int length) {
+            this.id = id;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    public ShardCoordinator(Path input, Path output, int workerCount, int shardSize) {
+        this(input, output, workerCount, shardSize, DEFAULT_SHARD_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param shardTimeoutMillis time a worker gets for a shard (and to start), after that it is killed and the
+     *                           shard handed out again
+     */
+    public ShardCoordinator(Path input, Path output, int workerCount, int shardSize, long shardTimeoutMillis) {
+        if (workerCount < 1 || shardSize < 1 || shardTimeoutMillis < 1) {
+            throw new IllegalArgumentException("workerCount, shardSize and shardTimeoutMillis must be positive");
+        }
+        this.input = input;
+        this.output = output;
+        this.workerCount = workerCount;
+        this.shardSize = shardSize;
+        this.shardTimeoutMillis = shardTimeoutMillis;
+    }
+
+    /**
+     * Split the input size in shards of (at most) the shard size.
+     *
+     * @param size input size in bytes
+     * @return the shards, in file order
+     */
+    List<Shard> split(long size) {
+        List<Shard> shards = new ArrayList<>();
+        int id = 0;
+        for (long offset = 0; offset < size; offset += shardSize) {
+            shards.add(new Shard(id++, offset, (int) Math.min(shardSize, size - offset)));
+        }
+        return shards;
+    }
+
+    /**
+     * Run all shards, and wait until done.
+     *
+     * @throws IOException when a shard could not be converted after all attempts
+     * @throws InterruptedException when interrupted while waiting for the workers
+     */
+    public void run() throws IOException, InterruptedException {
+        long size = Files.size(input);
+        try (RandomAccessFile file = new RandomAccessFile(output.toFile(), "rw")) {
+            file.setLength(size);
+        }
+
+        List<Shard> shards = split(size);
+        BlockingQueue<Shard> pending = new LinkedBlockingQueue<>(shards);
+        CountDownLatch finished = new CountDownLatch(shards.size());
+        List<Shard> failed = Collections.synchronizedList(new ArrayList<>());
+
+        List<Thread> slots = new ArrayList<>();
+        for (int i = 0; i < Math.min(workerCount, shards.size()); i++) {
+            Thread slot = new Thread(() -> serve(pending, finished, failed), "shard-slot-" + i);
+            slot.start();
+            slots.add(slot);
+        }
+        for (Thread slot : slots) {
+            slot.join();
+        }
+
+        if (!failed.isEmpty()) {
+            throw new IOException(failed.size() + " of " + shards.size() + " shards failed after " + MAX_ATTEMPTS + " attempts");
+        }
+    }
+
+    /**
+     * One worker slot: keep a worker process alive, and feed it shards until all shards are finished.
+     */
+    private void serve(BlockingQueue<Shard> pending, CountDownLatch finished, List<Shard> failed) {
+        WorkerProcess worker = null;
+        try {
+            while (finished.getCount() > 0) {
+                Shard shard = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (shard == null) {
+                    continue;
+                }
+
+                String failure;
+                try {
+                    if (worker == null) {
+                        worker = new WorkerProcess();
+                    }
+                    failure = worker.convert(shard);
+                } catch (IOException e) {
+                    // broken pipe, the worker died, or it hangs: replace it
+                    failure = e.toString();
+                    if (worker != null) {
+                        worker.destroy();
+                        worker = null;
+                    }
+                }
+
+                if (failure == null) {
+                    finished.countDown();
+                } else if (++shard.attempts < MAX_ATTEMPTS) {
+                    System.err.println("Shard " + shard.id + " failed (attempt " + shard.attempts + "), retrying: " + failure);
+                    pending.add(shard);
+                } else {
+                    System.err.println("Shard " + shard.id + " failed, giving up: " + failure);
+                    failed.add(shard);
+                    finished.countDown();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (worker != null) {
+                worker.close();
+            }
+        }
+    }
+
+    /**
+     * A worker JVM, started with the same java and classpath as this one.
+     */
+    private class WorkerProcess {
+        private final Process process;
+        private final BufferedWriter commands;
+        private final BlockingQueue<String> replies = new LinkedBlockingQueue<>();
+
+        WorkerProcess() throws IOException {
+            int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / workerCount);
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+            process = new ProcessBuilder(java,
+                "-Djava.util.concurrent.ForkJoinPool.common.parallelism=" + parallelism,
+                "-cp", System.getProperty("java.class.path"),
+                workerClass, input.toString(), output.toString())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+            commands = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+
+            // replies are read on their own thread, so waiting for one can time out
+            Thread reader = new Thread(() -> {
+                try (BufferedReader lines = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = lines.readLine()) != null) {
+                        replies.add(line);
+                    }
+                } catch (IOException e) {
+                    // the worker is gone, same as the end of its replies
+                } finally {
+                    replies.add(END_OF_REPLIES);
+                }
+            }, "shard-worker-replies");
+            reader.setDaemon(true);
+            reader.start();
+
+            String ready;
+            try {
+                ready = nextReply("start");
+            } catch (IOException e) {
+                destroy();
+                throw e;
+            }
+            if (!ShardWorker.READY.equals(ready)) {
+                destroy();
+                throw new IOException("Worker did not start, got: " + ready);
+            }
+        }
+
+        /**
+         * Send a shard, and wait for the answer.
+         *
+         * @return null when done, or the failure message of the worker
+         * @throws IOException when the worker cannot be reached (anymore)
+         */
+        String convert(Shard shard) throws IOException {
+            commands.write(ShardWorker.SHARD + " " + shard.id + " " + shard.offset + " " + shard.length);
+            commands.newLine();
+            commands.flush();
+
+            String reply = nextReply("shard " + shard.id);
+            if (reply == null) {
+                throw new IOException("Worker stopped while converting shard " + shard.id);
+            }
+            if (reply.equals(ShardWorker.DONE + " " + shard.id)) {
+                return null;
+            }
+            return reply;
+        }
+
+        /**
+         * @return the next reply, or null when the worker stopped
+         * @throws IOException when there is no reply within the shard timeout
+         */
+        private String nextReply(String waitingFor) throws IOException {
+            String reply;
+            try {
+                reply = replies.poll(shardTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for " + waitingFor);
+            }
+            if (reply == null) {
+                throw new IOException("No answer from worker within " + shardTimeoutMillis + " ms for " + waitingFor);
+            }
+            return reply == END_OF_REPLIES ? null : reply;
+        }
+
+        void close() {
+            try {
+                commands.write(ShardWorker.QUIT);
+                commands.newLine();
+                commands.flush();
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    destroy();
+                }
+            } catch (IOException e) {
+                destroy();
+            } catch (InterruptedException e) {
+                destroy();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void destroy() {
+            process.destroyForcibly();
+        }
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args input file, output file, optional number of workers (default 2), optional shard size in MB
+     * @throws Exception on error
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || args.length > 4) {
+            System.err.println("Usage: ShardCoordinator <input> <output> [workers] [shard-size-mb]");
+            System.exit(2);
+        }
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int shardSize = args.length > 3 ? Integer.parseInt(args[3]) * 1024 * 1024 : DEFAULT_SHARD_SIZE;
+
+        Path input = Paths.get(args[0]);
+        long t = System.currentTimeMillis();
+        new ShardCoordinator(input, Paths.get(args[1]), workers, shardSize).run();
+        long timeMs = Math.max(1, System.currentTimeMillis() - t);
+
+        long size = Files.size(input);
+        System.out.println("Converted " + size + " bytes with " + workers + " workers in " + timeMs + " ms ("
+            + (size / 1024 / 1024 * 1000 / timeMs) + " MB/s).");
+    }
+}
@@ -0,0 +1,105 @@
+package contest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Worker process for the {@link ShardCoordinator}.
+ *
+ * The worker opens the input and output file once, and then handles shard commands, one per line on stdin:
+ *
+ * - "SHARD id offset length": read the byte range from the input, complement it, write it at the same
+ *   offset in the output. Answered with "DONE id" or "FAIL id message".
+ * - "QUIT": stop the worker.
+ *
+ * The worker announces itself with "READY" on stdout. Nothing else may be written to stdout (diagnostics
+ * go to stderr), so the same line protocol can later be carried over a socket to a worker on another node.
+ */
+public class ShardWorker {
+
+    static final String READY = "READY";
+    static final String SHARD = "SHARD";
+    static final String DONE = "DONE";
+    static final String FAIL = "FAIL";
+    static final String QUIT = "QUIT";
+
+    private final FileChannel input;
+    private final FileChannel output;
+    private byte[] buffer = new byte[0];
+
+    ShardWorker(FileChannel input, FileChannel output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    /**
+     * Complement one shard: read, convert (in parallel, within this JVM), write back at the same offset.
+     *
+     * @param offset byte offset of the shard
+     * @param length number of bytes in the shard
+     * @throws IOException on read/write error
+     */
+    void process(long offset, int length) throws IOException {
+        if (buffer.length < length) {
+            buffer = new byte[length];
+        }
+
+        ByteBuffer view = ByteBuffer.wrap(buffer, 0, length);
+        while (view.hasRemaining()) {
+            if (input.read(view, offset + view.position()) < 0) {
+                throw new IOException("Unexpected end of input at " + (offset + view.position()));
+            }
+        }
+
+        ComplementKernel.complementParallel(buffer, 0, length);
+
+        view.flip();
+        while (view.hasRemaining()) {
+            output.write(view, offset + view.position());
+        }
+    }
+
+    /**
+     * Worker entry point, started by the coordinator.
+     *
+     * @param args input file and output file
+     * @throws IOException when the files cannot be opened, or stdin breaks
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ShardWorker <input> <output>");
+            System.exit(2);
+        }
+
+        PrintStream replies = new PrintStream(System.out, true, "UTF-8");
+        BufferedReader commands = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+
+        try (FileChannel input = FileChannel.open(Paths.get(args[0]), StandardOpenOption.READ);
+             FileChannel output = FileChannel.open(Paths.get(args[1]), StandardOpenOption.WRITE)) {
+            ShardWorker worker = new ShardWorker(input, output);
+            replies.println(READY);
+
+            String line;
+            while ((line = commands.readLine()) != null && !QUIT.equals(line)) {
+                String[] command = line.split(" ");
+                if (command.length != 4 || !SHARD.equals(command[0])) {
+                    replies.println(FAIL + " - unknown command: " + line);
+                    continue;
+                }
+                try {
+                    worker.process(Long.parseLong(command[2]), Integer.parseInt(command[3]));
+                    replies.println(DONE + " " + command[1]);
+                } catch (IOException | RuntimeException e) {
+                    replies.println(FAIL + " " + command[1] + " " + e);
+                }
+            }
+        }
+    }
+}
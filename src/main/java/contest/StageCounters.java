@@ -0,0 +1,105 @@
+package contest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput counters for the stages of a pipeline (read, convert, write, ...).
+ *
+ * Every stage counts the bytes it handled and the time it was busy. Stages may run on several threads at
+ * once, so busy time is summed over threads, and the throughput shown is per busy thread.
+ */
+public class StageCounters {
+
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+
+    /**
+     * Counters for one stage.
+     */
+    public static class Stage {
+        private final String name;
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Count some work done by this stage.
+         *
+         * @param byteCount number of bytes handled
+         * @param startNanos System.nanoTime() when the work started
+         */
+        public void add(long byteCount, long startNanos) {
+            bytes.add(byteCount);
+            busyNanos.add(System.nanoTime() - startNanos);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getBytes() {
+            return bytes.sum();
+        }
+
+        public long getBusyNanos() {
+            return busyNanos.sum();
+        }
+
+        /**
+         * @return throughput in MB/s, over the time this stage was busy
+         */
+        public double getMbPerSecond() {
+            return mbPerSecond(getBytes(), getBusyNanos());
+        }
+    }
+
+    /**
+     * @param names stage names, in pipeline order
+     */
+    public StageCounters(String... names) {
+        for (String name : names) {
+            stages.put(name, new Stage(name));
+        }
+    }
+
+    /**
+     * @param name the stage name
+     * @return the counters of that stage
+     */
+    public Stage stage(String name) {
+        Stage stage = stages.get(name);
+        if (stage == null) {
+            throw new IllegalArgumentException("Unknown stage: " + name);
+        }
+        return stage;
+    }
+
+    static double mbPerSecond(long bytes, long nanos) {
+        return nanos <= 0 ? 0 : bytes / (1024.0 * 1024.0) / (nanos / 1e9);
+    }
+
+    /**
+     * Report all stages, plus the overall throughput.
+     *
+     * @param totalBytes bytes handled end-to-end
+     * @param wallNanos end-to-end elapsed time
+     * @return the report, one line per stage
+     */
+    public String report(long totalBytes, long wallNanos) {
+        StringBuilder result = new StringBuilder();
+        String format = "%-12s | %12s | %8s | %9s%n";
+        result.append(String.format(format, "Stage", "Bytes", "Busy", "MB/s"));
+        for (Stage stage : stages.values()) {
+            result.append(String.format("%-12s | %12d | %6dms | %9.1f%n", stage.getName(), stage.getBytes(),
+                TimeUnit.NANOSECONDS.toMillis(stage.getBusyNanos()), stage.getMbPerSecond()));
+        }
+        result.append(String.format("%-12s | %12d | %6dms | %9.1f%n", "end-to-end", totalBytes,
+            TimeUnit.NANOSECONDS.toMillis(wallNanos), mbPerSecond(totalBytes, wallNanos)));
+        return result.toString();
+    }
+}
@@ -0,0 +1,130 @@
+package contest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Startup benchmark for the complement tool: start it many times on a small input, and measure the time
+ * from starting the process until the first output byte arrives, and until it exits. Next to that, the
+ * throughput on a full chain, so startup and throughput can be weighed against each other.
+ *
+ * Run for the plain JVM, and (when given) with the class data sharing archive.
+ *
+ * Usage: StartupBenchmark complement.jar [complement.jsa] [runs]
+ */
+public class StartupBenchmark {
+
+    static final int SMALL_INPUT_SIZE = 1000;
+
+    /**
+     * Timings of one process run, in nanoseconds.
+     */
+    static class Run {
+        long firstByteNanos;
+        long exitNanos;
+        long bytes;
+    }
+
+    static Run run(List<String> command, Path input) throws IOException, InterruptedException {
+        Run run = new Run();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+            .redirectInput(input.toFile())
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream out = process.getInputStream()) {
+            int n;
+            while ((n = out.read(buffer)) >= 0) {
+                if (run.bytes == 0 && n > 0) {
+                    run.firstByteNanos = System.nanoTime() - start;
+                }
+                run.bytes += n;
+            }
+        }
+        if (process.waitFor() != 0) {
+            throw new IOException("Failed: " + command);
+        }
+        run.exitNanos = System.nanoTime() - start;
+        return run;
+    }
+
+    static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    static Path chain(int size) throws IOException {
+        byte[] chain = new byte[size];
+        Random random = new Random();
+        for (int i = 0; i < size; i++) {
+            chain[i] = (byte) "CATG".charAt(random.nextInt(4));
+        }
+        Path file = Files.createTempFile("chain", ".txt");
+        Files.write(file, chain);
+        return file;
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args the complement jar, optional CDS archive, optional number of runs (default 20)
+     * @throws Exception on error
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: StartupBenchmark complement.jar [complement.jsa] [runs]");
+            System.exit(2);
+        }
+        String jar = new File(args[0]).getAbsolutePath();
+        String archive = args.length > 1 && new File(args[1]).exists() ? new File(args[1]).getAbsolutePath() : null;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+        List<List<String>> commands = new ArrayList<>();
+        commands.add(Arrays.asList(java, "-Xshare:off", "-jar", jar));
+        commands.add(Arrays.asList(java, "-jar", jar));
+        if (archive != null) {
+            commands.add(Arrays.asList(java, "-XX:SharedArchiveFile=" + archive, "-jar", jar));
+        } else if (args.length > 1) {
+            System.err.println("No CDS archive at " + args[1] + ", build it with: gradle cdsArchive");
+        }
+        String[] labels = {"no CDS", "default CDS (JDK classes)", "AppCDS archive"};
+
+        Path small = chain(SMALL_INPUT_SIZE);
+        Path large = chain(Contest.CHAIN_SIZE);
+        try {
+            String format = "%-26s | %16s | %14s | %10s | %9s%n";
+            System.out.printf(format, "Mode", "First byte", "Exit", "Chain", "MB/s");
+            System.out.printf(format, "", "(median/min)", "(median)", "", "");
+            for (int c = 0; c < commands.size(); c++) {
+                List<String> command = commands.get(c);
+                long[] firstByte = new long[runs];
+                long[] exit = new long[runs];
+                for (int i = 0; i < runs; i++) {
+                    Run run = run(command, small);
+                    firstByte[i] = run.firstByteNanos;
+                    exit[i] = run.exitNanos;
+                }
+                Run chain = run(command, large);
+
+                System.out.printf("%-26s | %6dms/%5dms | %12dms | %8dms | %9.1f%n", labels[c],
+                    median(firstByte) / 1000000, Arrays.stream(firstByte).min().getAsLong() / 1000000,
+                    median(exit) / 1000000, chain.exitNanos / 1000000,
+                    StageCounters.mbPerSecond(chain.bytes, chain.exitNanos));
+            }
+        } finally {
+            Files.delete(small);
+            Files.delete(large);
+        }
+    }
+}
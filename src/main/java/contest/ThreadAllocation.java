@@ -0,0 +1,26 @@
+package contest;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Bytes allocated by the calling thread, for {@link ComplementEvent}.
+ *
+ * This is the java 8 version, which asks by thread id. The java 17 version (src/java17, in
+ * META-INF/versions/17 of the multi-release jar) asks for the current thread directly.
+ */
+final class ThreadAllocation {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private ThreadAllocation() {
+    }
+
+    /**
+     * @return bytes allocated by the current thread so far
+     */
+    @SuppressWarnings("deprecation") // getId is deprecated since java 19, which loads the java 17 version
+    static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
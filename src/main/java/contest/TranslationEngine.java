@@ -0,0 +1,295 @@
+package contest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Translates chains by any character mapping, like the Unix tr: complement (A by T, ...), transcription
+ * (T by U), RNA complement, masking, ...
+ *
+ * Two kernels: a lookup table loop (data[i] = table[data[i]]), and a kernel class generated at runtime
+ * for the mapping (see KernelGenerator): the switch loop of the hand-written contenders, with the mapping
+ * as constants, which the JIT compiles just like #10 and #16.
+ *
+ * The generated kernel is as fast as the hand-written switch, but on (random) chains the table loop is
+ * 10 - 15 times faster than both (java 8 - 21): it has no branches, where the switch mispredicts most
+ * characters. So the generated one is only used with -Dcontest.translation.generate=true; the default is
+ * the fastest kernel of the runtime (see Kernels): the table loop, or a vector kernel on java 17+.
+ *
+ * The drivers are those of ComplementKernel: sequential, or split in halves in a ForkJoinPool (#16).
+ * Every call of the public methods is counted in the {@link EngineMetrics} of "translate-" + name.
+ */
+public final class TranslationEngine {
+
+    static final boolean GENERATE = Boolean.getBoolean("contest.translation.generate");
+
+    private static final Map<String, TranslationEngine> ENGINES = new ConcurrentHashMap<>();
+
+    /**
+     * Translates a range of an array in place.
+     */
+    public interface Kernel {
+        void translate(byte[] data, int from, int to);
+
+        void translate(char[] data, int from, int to);
+    }
+
+    private final String name;
+    private final byte[] table;
+    private final Kernel kernel;
+    private final EngineMetrics metrics;
+
+    private TranslationEngine(String name, byte[] table, Kernel kernel) {
+        this.name = name;
+        this.table = table;
+        this.kernel = kernel;
+        this.metrics = EngineMetrics.forEngine("translate-" + name);
+    }
+
+    /**
+     * Make an engine for a mapping: every character of from becomes the character at the same place in to,
+     * all others stay.
+     *
+     * @param name engine name, for the metrics
+     * @param from characters to replace (Latin-1)
+     * @param to their replacements (Latin-1)
+     * @return a new engine, with the fastest kernel of the runtime (or generated, see the class comment)
+     */
+    public static TranslationEngine forMapping(String name, String from, String to) {
+        byte[] table = table(from, to);
+        return new TranslationEngine(name, table, GENERATE ? KernelDefiner.define(KernelGenerator.generate(table))
+            : Kernels.create(table));
+    }
+
+    /**
+     * Make an engine for a mapping: every character of from becomes the character at the same place in to,
+     * all others stay.
+     *
+     * @param name engine name, for the metrics
+     * @param from characters to replace (Latin-1)
+     * @param to their replacements (Latin-1)
+     * @param generate true for a generated kernel, false for the table loop
+     * @return a new engine
+     */
+    public static TranslationEngine forMapping(String name, String from, String to, boolean generate) {
+        byte[] table = table(from, to);
+        return new TranslationEngine(name, table, generate ? KernelDefiner.define(KernelGenerator.generate(table))
+            : new TableKernel(table));
+    }
+
+    /**
+     * @return the translation table of a mapping: character c becomes table[c]
+     */
+    static byte[] table(String from, String to) {
+        if (from.length() != to.length()) {
+            throw new IllegalArgumentException("Mapping from " + from + " to " + to + " differs in length");
+        }
+        byte[] table = new byte[256];
+        for (int c = 0; c < table.length; c++) {
+            table[c] = (byte) c;
+        }
+        for (int i = 0; i < from.length(); i++) {
+            if (from.charAt(i) > 255 || to.charAt(i) > 255) {
+                throw new IllegalArgumentException("Only Latin-1 characters can be mapped");
+            }
+            table[from.charAt(i)] = (byte) to.charAt(i);
+        }
+        return table;
+    }
+
+    /**
+     * The standard engines, made on first use:
+     *
+     * complement      DNA complement, ACGT to TGCA (like the contest)
+     * transcribe      DNA to RNA, T to U
+     * rna-complement  RNA complement, ACGU to UGCA
+     * template        DNA template strand to RNA, ACGT to UGCA
+     * hard-mask       soft masked (lower case) bases to N
+     *
+     * @param name one of the names above
+     * @return the engine
+     */
+    public static TranslationEngine named(String name) {
+        return ENGINES.computeIfAbsent(name, n -> {
+            switch (n) {
+                case "complement":
+                    return forMapping(n, "ACGT", "TGCA");
+                case "transcribe":
+                    return forMapping(n, "T", "U");
+                case "rna-complement":
+                    return forMapping(n, "ACGU", "UGCA");
+                case "template":
+                    return forMapping(n, "ACGT", "UGCA");
+                case "hard-mask":
+                    return forMapping(n, "acgtn", "NNNNN");
+                default:
+                    throw new IllegalArgumentException("Unknown translation: " + n
+                        + " (use complement, transcribe, rna-complement, template or hard-mask)");
+            }
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return what c becomes (for c &lt; 256)
+     */
+    char translated(char c) {
+        return (char) (table[c] & 0xff);
+    }
+
+    /**
+     * Translate a String (the fastest way for this runtime, see Kernels).
+     *
+     * @param input the String
+     * @return the translated String
+     */
+    public String translate(String input) {
+        return Kernels.translate(this, input, null);
+    }
+
+    /**
+     * Translate a String, using the given ForkJoinPool.
+     *
+     * @param input the String
+     * @param pool the pool to run in
+     * @return the translated String
+     */
+    public String translateParallel(String input, ForkJoinPool pool) {
+        return Kernels.translate(this, input, pool);
+    }
+
+    /**
+     * Translate a range of a byte array in place.
+     *
+     * @param data the characters (Latin-1)
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     */
+    public void translate(byte[] data, int from, int to) {
+        long start = metrics.begin();
+        Object event = metrics.beginEvent();
+        kernel.translate(data, from, to);
+        metrics.end(start, event, to - from, 1, 1);
+    }
+
+    /**
+     * Translate a range of a char array in place.
+     *
+     * @param data the characters
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     */
+    public void translate(char[] data, int from, int to) {
+        long start = metrics.begin();
+        Object event = metrics.beginEvent();
+        kernel.translate(data, from, to);
+        metrics.end(start, event, to - from, 1, 1);
+    }
+
+    /**
+     * Translate a range of a byte array in place, using the given ForkJoinPool.
+     *
+     * @param data the characters (Latin-1)
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param pool the pool to run in
+     */
+    public void translateParallel(byte[] data, int from, int to, ForkJoinPool pool) {
+        long start = metrics.begin();
+        Object event = metrics.beginEvent();
+        if (to - from < ComplementKernel.WORK_SIZE_THRESHOLD) {
+            kernel.translate(data, from, to);
+        } else {
+            pool.invoke(new Split(kernel, data, null, from, to));
+        }
+        metrics.end(start, event, to - from, ComplementKernel.chunkCount(to - from), pool.getParallelism());
+    }
+
+    /**
+     * Translate a range of a char array in place, using the given ForkJoinPool.
+     *
+     * @param data the characters
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param pool the pool to run in
+     */
+    public void translateParallel(char[] data, int from, int to, ForkJoinPool pool) {
+        long start = metrics.begin();
+        Object event = metrics.beginEvent();
+        if (to - from < ComplementKernel.WORK_SIZE_THRESHOLD) {
+            kernel.translate(data, from, to);
+        } else {
+            pool.invoke(new Split(kernel, null, data, from, to));
+        }
+        metrics.end(start, event, to - from, ComplementKernel.chunkCount(to - from), pool.getParallelism());
+    }
+
+    /**
+     * The generic kernel: one table lookup per character.
+     */
+    static final class TableKernel implements Kernel {
+        private final byte[] table;
+
+        TableKernel(byte[] table) {
+            this.table = table.clone();
+        }
+
+        @Override
+        public void translate(byte[] data, int from, int to) {
+            for (int i = from; i < to; i++) {
+                data[i] = table[data[i] & 0xff];
+            }
+        }
+
+        @Override
+        public void translate(char[] data, int from, int to) {
+            for (int i = from; i < to; i++) {
+                char c = data[i];
+                if (c < 256) {
+                    data[i] = (char) (table[c] & 0xff);
+                }
+            }
+        }
+    }
+
+    /**
+     * Split the range in halves until small enough, then translate directly (ChainOpposite, for any kernel).
+     */
+    static class Split extends RecursiveAction {
+        private final Kernel kernel;
+        private final byte[] bytes;
+        private final char[] chars;
+        private final int from;
+        private final int to;
+
+        Split(Kernel kernel, byte[] bytes, char[] chars, int from, int to) {
+            this.kernel = kernel;
+            this.bytes = bytes;
+            this.chars = chars;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < ComplementKernel.WORK_SIZE_THRESHOLD) {
+                if (bytes != null) {
+                    kernel.translate(bytes, from, to);
+                } else {
+                    kernel.translate(chars, from, to);
+                }
+                return;
+            }
+
+            int split = from + (to - from) / 2;
+            invokeAll(
+                new Split(kernel, bytes, chars, from, split),
+                new Split(kernel, bytes, chars, split, to));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package contest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+public class AlignedPartitionerTest {
+
+    @Test
+    public void testBoundariesAligned() {
+        int[] boundaries = AlignedPartitioner.partition(Contest.CHAIN_SIZE, Character.BYTES, 200, 64);
+        assertEquals(boundaries[0], 0);
+        assertEquals(boundaries[boundaries.length - 1], Contest.CHAIN_SIZE);
+        for (int i = 1; i < boundaries.length - 1; i++) {
+            assertEquals((AlignedPartitioner.ARRAY_BASE_OFFSET + boundaries[i] * Character.BYTES) % 64, 0);
+            assertTrue(boundaries[i] > boundaries[i - 1]);
+        }
+    }
+
+    @Test
+    public void testL2SizedParts() {
+        int[] boundaries = AlignedPartitioner.partition(Contest.CHAIN_SIZE, Byte.BYTES);
+        int unit = AlignedPartitioner.L2_SIZE / 2;
+        assertEquals(boundaries.length - 1, Contest.CHAIN_SIZE / unit);
+        for (int i = 1; i < boundaries.length - 1; i++) {
+            assertEquals((AlignedPartitioner.ARRAY_BASE_OFFSET + boundaries[i]) % AlignedPartitioner.PAGE_SIZE, 0);
+        }
+    }
+
+    @Test
+    public void testSmallInput() {
+        assertEquals(AlignedPartitioner.partition(10, Character.BYTES, 4, 64).length, 2);
+        assertEquals(AlignedPartitioner.partition(0, Character.BYTES).length, 2);
+    }
+}
@@ -0,0 +1,35 @@
+package contest;
+
+import static org.testng.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+public class AsyncFileComplementerTest {
+
+    @Test
+    public void testComplementFile() throws Exception {
+        byte[] chain = new byte[100003];
+        Random random = new Random(3);
+        for (int i = 0; i < chain.length; i++) {
+            chain[i] = (byte) "CATG".charAt(random.nextInt(4));
+        }
+        byte[] expected = chain.clone();
+        ComplementKernel.complement(expected, 0, expected.length);
+
+        Path input = Files.createTempFile("chain", ".txt");
+        Path output = Files.createTempFile("chain", ".out");
+        try {
+            Files.write(input, chain);
+            AsyncFileComplementer complementer = new AsyncFileComplementer(3, 4096);
+            assertEquals(complementer.run(input, output), chain.length);
+            assertEquals(Files.readAllBytes(output), expected);
+            assertEquals(complementer.getCounters().stage("write").getBytes(), chain.length);
+        } finally {
+            Files.delete(input);
+            Files.delete(output);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package contest;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.testng.annotations.Test;
+
+public class BgzfComplementPipelineTest {
+
+    private static byte[] chain(int size) {
+        byte[] chain = new byte[size];
+        Random random = new Random(7);
+        for (int i = 0; i < size; i++) {
+            chain[i] = (byte) "CATG".charAt(random.nextInt(4));
+        }
+        return chain;
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                result.write(buffer, 0, n);
+            }
+        }
+        return result.toByteArray();
+    }
+
+    @Test
+    public void testPlainGzipThenBgzf() throws IOException {
+        byte[] chain = chain(1000001);
+        byte[] expected = chain.clone();
+        ComplementKernel.complement(expected, 0, expected.length);
+
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(chain);
+        }
+
+        // plain gzip in, BGZF out
+        ByteArrayOutputStream bgzf = new ByteArrayOutputStream();
+        BgzfComplementPipeline pipeline = new BgzfComplementPipeline(4, 3);
+        assertEquals(pipeline.run(new ByteArrayInputStream(gzip.toByteArray()), bgzf), chain.length);
+        assertEquals(gunzip(bgzf.toByteArray()), expected);
+
+        // BGZF in (parallel decompress), complement of the complement is the original
+        ByteArrayOutputStream again = new ByteArrayOutputStream();
+        BgzfComplementPipeline blocks = new BgzfComplementPipeline(4, 3);
+        assertEquals(blocks.run(new ByteArrayInputStream(bgzf.toByteArray()), again), chain.length);
+        assertEquals(gunzip(again.toByteArray()), chain);
+        assertEquals(blocks.getCounters().stage("inflate").getBytes(), chain.length);
+    }
+
+    /**
+     * @return the chain, BGZF compressed by the pipeline (complemented twice, so unchanged)
+     */
+    private static byte[] bgzf(byte[] chain) throws IOException {
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(chain);
+        }
+        ByteArrayOutputStream bgzf = new ByteArrayOutputStream();
+        new BgzfComplementPipeline(1, 1).run(new ByteArrayInputStream(gzip.toByteArray()), bgzf);
+        return bgzf.toByteArray();
+    }
+
+    @Test(expectedExceptions = IOException.class,
+        expectedExceptionsMessageRegExp = "BGZF block at offset 0 has block size 11, smaller than its header.*")
+    public void testBlockSizeTooSmall() throws IOException {
+        byte[] bgzf = bgzf(chain(1000));
+        BgzfComplementPipeline.putLittleEndianShort(bgzf, 16, 10);
+        new BgzfComplementPipeline(2, 2).run(new ByteArrayInputStream(bgzf), new ByteArrayOutputStream());
+    }
+
+    @Test(expectedExceptions = IOException.class,
+        expectedExceptionsMessageRegExp = "BGZF block at offset 0 has uncompressed size 2147483647, over the limit.*")
+    public void testUncompressedSizeTooLarge() throws IOException {
+        byte[] bgzf = bgzf(chain(1000));
+        int blockSize = BgzfComplementPipeline.littleEndianShort(bgzf, 16) + 1;
+        BgzfComplementPipeline.putLittleEndianInt(bgzf, blockSize - 4, Integer.MAX_VALUE);
+        new BgzfComplementPipeline(2, 2).run(new ByteArrayInputStream(bgzf), new ByteArrayOutputStream());
+    }
+}
@@ -0,0 +1,27 @@
+package contest;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.testng.annotations.Test;
+
+public class ComplementCliTest {
+
+    @Test
+    public void testEngines() throws Exception {
+        for (String engine : new String[] {"auto", "sequential", "parallel"}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ComplementCli cli = new ComplementCli(engine, 2);
+            long length = cli.run(new ByteArrayInputStream("ACGT\nNACG".getBytes(StandardCharsets.US_ASCII)), out);
+            assertEquals(length, 9);
+            assertEquals(out.toString("US-ASCII"), "TGCA\nNTGC");
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnknownEngine() {
+        new ComplementCli("quantum", 1);
+    }
+}
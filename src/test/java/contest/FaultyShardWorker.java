@@ -0,0 +1,33 @@
+package contest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * A ShardWorker that misbehaves once: when the file output + ".fault" exists, it deletes it, and on the first
+ * shard it hangs ("hang" in the file) or exits ("exit"). Otherwise (so the next worker) it is a normal worker.
+ */
+public class FaultyShardWorker {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path fault = Paths.get(args[1] + ".fault");
+        if (!Files.exists(fault)) {
+            ShardWorker.main(args);
+            return;
+        }
+        String mode = new String(Files.readAllBytes(fault), StandardCharsets.UTF_8).trim();
+        Files.delete(fault);
+
+        System.out.println(ShardWorker.READY);
+        new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)).readLine();
+        if ("hang".equals(mode)) {
+            Thread.sleep(Long.MAX_VALUE);
+        }
+        System.exit(1);
+    }
+}
@@ -0,0 +1,94 @@
+package contest;
+
+import static org.testng.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.testng.annotations.Test;
+
+public class KmerExtractorTest {
+
+    private static byte[] chain(int length, long seed) {
+        Random random = new Random(seed);
+        byte[] chain = new byte[length];
+        for (int i = 0; i < length; i++) {
+            chain[i] = (byte) (random.nextInt(1000) == 0 ? 'N' : "ACGT".charAt(random.nextInt(4)));
+        }
+        return chain;
+    }
+
+    /**
+     * The canonical k-mer the slow way: complement a copy, reverse it, and take the smallest of both.
+     */
+    private static long expected(byte[] data, int start, int k) {
+        String forward = new String(data, start, k, StandardCharsets.US_ASCII);
+        if (forward.contains("N")) {
+            return KmerExtractor.NO_KMER;
+        }
+        char[] complement = forward.toCharArray();
+        ComplementKernel.complementRange(complement, 0, k);
+        String reverse = new StringBuilder(new String(complement)).reverse().toString();
+        String canonical = forward.compareTo(reverse) <= 0 ? forward : reverse;
+        long kmer = 0;
+        for (int i = 0; i < k; i++) {
+            kmer = kmer << 2 | "ACGT".indexOf(canonical.charAt(i));
+        }
+        return kmer;
+    }
+
+    @Test
+    public void testCanonical() {
+        byte[] data = chain(2000, 1);
+        for (int k : new int[] {1, 5, 21, 31, 32}) {
+            long[] kmers = new KmerExtractor(k).canonicalKmers(data, 0, data.length);
+            assertEquals(kmers.length, data.length - k + 1);
+            for (int i = 0; i < kmers.length; i++) {
+                assertEquals(kmers[i], expected(data, i, k), "k=" + k + " at " + i);
+            }
+        }
+    }
+
+    @Test
+    public void testReverseComplementSameKmer() {
+        KmerExtractor extractor = new KmerExtractor(5);
+        long[] forward = extractor.canonicalKmers("AACGT".getBytes(StandardCharsets.US_ASCII), 0, 5);
+        long[] reverse = extractor.canonicalKmers("ACGTT".getBytes(StandardCharsets.US_ASCII), 0, 5);
+        assertEquals(forward, reverse);
+    }
+
+    @Test
+    public void testParallel() {
+        // parts of about WORK_SIZE_THRESHOLD starts, so plenty of boundaries
+        byte[] data = chain(5 * ComplementKernel.WORK_SIZE_THRESHOLD + 123, 2);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        for (int k : new int[] {7, 32}) {
+            KmerExtractor extractor = new KmerExtractor(k);
+            long[] sequential = extractor.canonicalKmers(data, 10, data.length);
+            assertEquals(extractor.canonicalKmersParallel(data, 10, data.length, pool), sequential);
+
+            AtomicLongArray seen = new AtomicLongArray(sequential.length);
+            for (int i = 0; i < sequential.length; i++) {
+                seen.set(i, KmerExtractor.NO_KMER);
+            }
+            extractor.forEachParallel(data, 10, data.length, pool, (position, kmer) -> seen.set(position - 10, kmer));
+            for (int i = 0; i < sequential.length; i++) {
+                assertEquals(seen.get(i), sequential[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testShortInput() {
+        KmerExtractor extractor = new KmerExtractor(4);
+        byte[] data = "ACG".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(extractor.canonicalKmers(data, 0, 3).length, 0);
+        assertEquals(extractor.canonicalKmersParallel(data, 0, 3, ForkJoinPool.commonPool()).length, 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testTooLong() {
+        new KmerExtractor(33);
+    }
+}
@@ -0,0 +1,36 @@
+package contest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100000; value++) {
+            histogram.record(value * 1000);
+        }
+        assertEquals(histogram.getTotalCount(), 100000);
+        assertEquals(histogram.getMax(), 100000000);
+        assertWithin(histogram.getValueAtPercentile(50), 50000000);
+        assertWithin(histogram.getValueAtPercentile(99), 99000000);
+        assertWithin(histogram.getValueAtPercentile(99.9), 99900000);
+        assertEquals(histogram.getValueAtPercentile(100), 100000000);
+    }
+
+    @Test
+    public void testIndexRoundTrip() {
+        for (long value : new long[] {0, 1, 63, 64, 65, 1000, 123456789, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.highestValueAt(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.highestValueAt(index - 1) < value);
+        }
+    }
+
+    private static void assertWithin(long actual, long expected) {
+        assertTrue(Math.abs(actual - expected) <= expected / 30, actual + " is not close to " + expected);
+    }
+}
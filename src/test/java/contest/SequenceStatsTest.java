@@ -0,0 +1,121 @@
+package contest;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.testng.annotations.Test;
+
+public class SequenceStatsTest {
+
+    private static byte[] chain(int length, long seed) {
+        Random random = new Random(seed);
+        byte[] chain = new byte[length];
+        for (int i = 0; i < length; i++) {
+            // runs of N's, and now and then an invalid character
+            chain[i] = (byte) "ACGTACGTACGTNNNNx".charAt(random.nextInt(17));
+        }
+        return chain;
+    }
+
+    /**
+     * The statistics the slow way: a second pass over the input.
+     */
+    private static void assertStats(SequenceStats stats, byte[] input, byte[] converted) {
+        long[] counts = new long[128];
+        long firstInvalid = -1;
+        long longestNRun = 0;
+        long run = 0;
+        for (int i = 0; i < input.length; i++) {
+            counts[input[i]]++;
+            if ("ACGTN".indexOf(input[i]) < 0 && firstInvalid < 0) {
+                firstInvalid = i;
+            }
+            run = input[i] == 'N' ? run + 1 : 0;
+            longestNRun = Math.max(longestNRun, run);
+        }
+
+        assertEquals(stats.getLength(), input.length);
+        assertEquals(stats.getA(), counts['A']);
+        assertEquals(stats.getC(), counts['C']);
+        assertEquals(stats.getG(), counts['G']);
+        assertEquals(stats.getT(), counts['T']);
+        assertEquals(stats.getN(), counts['N']);
+        assertEquals(stats.getInvalid(), input.length - counts['A'] - counts['C'] - counts['G'] - counts['T'] - counts['N']);
+        assertEquals(stats.getFirstInvalid(), firstInvalid);
+        assertEquals(stats.getLongestNRun(), longestNRun);
+        assertEquals(stats.getHash(), new String(converted, StandardCharsets.US_ASCII).hashCode());
+    }
+
+    @Test
+    public void testSequential() {
+        // done in parts: an N run across the first part boundary
+        byte[] input = chain(2 * ComplementKernel.WORK_SIZE_THRESHOLD + 10000, 1);
+        for (int i = ComplementKernel.WORK_SIZE_THRESHOLD - 40; i < ComplementKernel.WORK_SIZE_THRESHOLD + 60; i++) {
+            input[i] = 'N';
+        }
+        byte[] converted = input.clone();
+        SequenceStats stats = ComplementKernel.complementWithStats(converted, 0, converted.length, true);
+
+        byte[] expected = input.clone();
+        ComplementKernel.complementRange(expected, 0, expected.length);
+        assertEquals(converted, expected);
+        assertStats(stats, input, converted);
+        assertEquals(stats.getLongestNRun(), 100);
+    }
+
+    @Test
+    public void testParallel() {
+        // N runs and the first invalid character right at the part boundaries
+        byte[] input = chain(3 * ComplementKernel.WORK_SIZE_THRESHOLD + 17, 2);
+        for (int i = 0; i < input.length; i++) {
+            if (input[i] == 'x') {
+                input[i] = 'A';
+            }
+        }
+        int boundary = input.length / 2;
+        for (int i = boundary - 50; i < boundary + 70; i++) {
+            input[i] = 'N';
+        }
+        input[input.length / 4] = '\n';
+
+        byte[] converted = input.clone();
+        SequenceStats stats = ComplementKernel.complementParallelWithStats(converted, 0, converted.length, true,
+            new ForkJoinPool(3));
+
+        byte[] expected = input.clone();
+        ComplementKernel.complementRange(expected, 0, expected.length);
+        assertEquals(converted, expected);
+        assertStats(stats, input, converted);
+        assertEquals(stats.getLongestNRun(), 120);
+    }
+
+    @Test
+    public void testAllN() {
+        byte[] input = "NNNNNNNN".getBytes(StandardCharsets.US_ASCII);
+        SequenceStats first = ComplementKernel.complementRangeWithStats(input.clone(), 0, 5, false);
+        SequenceStats second = ComplementKernel.complementRangeWithStats(input.clone(), 5, 8, false);
+        SequenceStats merged = first.merge(second);
+        assertEquals(merged.getLongestNRun(), 8);
+        assertEquals(merged.leadingN, 8);
+        assertEquals(merged.trailingN, 8);
+        assertEquals(merged.getGcFraction(), 0.0, 0.0);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testNoHash() {
+        ComplementKernel.complementWithStats(new byte[] {'A'}, 0, 1, false).getHash();
+    }
+
+    @Test
+    public void testCliStats() throws Exception {
+        byte[] input = chain(ComplementCli.PARALLEL_THRESHOLD + 1000, 3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ComplementCli cli = new ComplementCli("parallel", 2, "hash", "complement");
+        cli.run(new ByteArrayInputStream(input), out);
+        assertStats(cli.getStats(), input, out.toByteArray());
+    }
+}
@@ -0,0 +1,79 @@
+package contest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+public class ShardCoordinatorTest {
+
+    private static byte[] chain(int length) {
+        byte[] chain = new byte[length];
+        Random random = new Random(42);
+        for (int i = 0; i < chain.length; i++) {
+            chain[i] = (byte) "CATG".charAt(random.nextInt(4));
+        }
+        return chain;
+    }
+
+    @Test
+    public void testShardedComplement() throws Exception {
+        byte[] chain = chain(1000003);
+        byte[] expected = chain.clone();
+        ComplementKernel.complement(expected, 0, expected.length);
+
+        Path input = Files.createTempFile("chain", ".txt");
+        Path output = Files.createTempFile("chain", ".out");
+        try {
+            Files.write(input, chain);
+            new ShardCoordinator(input, output, 2, 64 * 1024).run();
+            assertEquals(Files.readAllBytes(output), expected);
+        } finally {
+            Files.delete(input);
+            Files.delete(output);
+        }
+    }
+
+    /**
+     * The first worker hangs on its first shard, or exits: it must be replaced, and the shard retried.
+     */
+    @Test
+    public void testRetry() throws Exception {
+        byte[] chain = chain(300000);
+        byte[] expected = chain.clone();
+        ComplementKernel.complement(expected, 0, expected.length);
+
+        for (String fault : new String[] {"hang", "exit"}) {
+            Path input = Files.createTempFile("chain", ".txt");
+            Path output = Files.createTempFile("chain", ".out");
+            Path faultFile = Paths.get(output + ".fault");
+            try {
+                Files.write(input, chain);
+                Files.write(faultFile, fault.getBytes(StandardCharsets.UTF_8));
+                ShardCoordinator coordinator = new ShardCoordinator(input, output, 1, 64 * 1024, 3000);
+                coordinator.workerClass = FaultyShardWorker.class.getName();
+                coordinator.run();
+                assertFalse(Files.exists(faultFile));
+                assertEquals(Files.readAllBytes(output), expected);
+            } finally {
+                Files.delete(input);
+                Files.delete(output);
+                Files.deleteIfExists(faultFile);
+            }
+        }
+    }
+
+    @Test
+    public void testSplit() {
+        ShardCoordinator coordinator = new ShardCoordinator(null, null, 1, 10);
+        assertEquals(coordinator.split(25).size(), 3);
+        assertEquals(coordinator.split(25).get(2).offset, 20);
+        assertEquals(coordinator.split(25).get(2).length, 5);
+        assertEquals(coordinator.split(0).size(), 0);
+    }
+}
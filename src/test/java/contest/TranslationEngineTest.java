@@ -0,0 +1,121 @@
+package contest;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.testng.annotations.Test;
+
+public class TranslationEngineTest {
+
+    private static byte[] identity() {
+        byte[] table = new byte[256];
+        for (int c = 0; c < table.length; c++) {
+            table[c] = (byte) c;
+        }
+        return table;
+    }
+
+    @Test
+    public void testNamed() {
+        byte[] chain = "ACGTNacgtn\nU".getBytes(StandardCharsets.ISO_8859_1);
+        String[][] expected = {
+            {"complement", "TGCANacgtn\nU"},
+            {"transcribe", "ACGUNacgtn\nU"},
+            {"rna-complement", "UGCTNacgtn\nA"},
+            {"template", "UGCANacgtn\nU"},
+            {"hard-mask", "ACGTNNNNNN\nU"},
+        };
+        for (String[] translation : expected) {
+            TranslationEngine engine = TranslationEngine.named(translation[0]);
+            byte[] bytes = chain.clone();
+            engine.translate(bytes, 0, bytes.length);
+            assertEquals(new String(bytes, StandardCharsets.ISO_8859_1), translation[1]);
+
+            char[] chars = new String(chain, StandardCharsets.ISO_8859_1).toCharArray();
+            engine.translate(chars, 0, chars.length);
+            assertEquals(new String(chars), translation[1]);
+        }
+    }
+
+    @Test
+    public void testGeneratedLikeTable() {
+        // every character, both signs of byte, mapped to every other
+        Random random = new Random(1);
+        byte[] table = identity();
+        for (int i = 0; i < 100; i++) {
+            table[random.nextInt(256)] = (byte) random.nextInt(256);
+        }
+        TranslationEngine.Kernel generated = KernelDefiner.define(KernelGenerator.generate(table));
+        TranslationEngine.Kernel lookup = new TranslationEngine.TableKernel(table);
+
+        byte[] bytes = new byte[10000];
+        random.nextBytes(bytes);
+        byte[] expected = bytes.clone();
+        lookup.translate(expected, 0, expected.length);
+        generated.translate(bytes, 0, bytes.length);
+        assertEquals(bytes, expected);
+
+        char[] chars = new char[10000];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) random.nextInt(300);
+        }
+        char[] expectedChars = chars.clone();
+        lookup.translate(expectedChars, 0, expectedChars.length);
+        generated.translate(chars, 5, chars.length);
+        for (int i = 0; i < 5; i++) {
+            expectedChars[i] = chars[i];
+        }
+        assertEquals(chars, expectedChars);
+    }
+
+    @Test
+    public void testIdentity() {
+        byte[] bytes = "ACGT".getBytes(StandardCharsets.US_ASCII);
+        KernelDefiner.define(KernelGenerator.generate(identity())).translate(bytes, 0, bytes.length);
+        assertEquals(new String(bytes, StandardCharsets.US_ASCII), "ACGT");
+    }
+
+    @Test
+    public void testParallel() {
+        String input = Contest.generateInput(5 * ComplementKernel.WORK_SIZE_THRESHOLD + 7);
+        char[] expected = input.toCharArray();
+        ComplementKernel.complementRange(expected, 0, expected.length);
+        for (boolean generate : new boolean[] {true, false}) {
+            char[] chain = input.toCharArray();
+            TranslationEngine.forMapping("test", "ACGT", "TGCA", generate)
+                .translateParallel(chain, 0, chain.length, new ForkJoinPool(3));
+            assertEquals(chain, expected);
+        }
+    }
+
+    @Test
+    public void testStrings() {
+        TranslationEngine engine = TranslationEngine.named("complement");
+        assertEquals(engine.translate("ACGTN?\n"), "TGCAN?\n");
+        // not Latin-1 (for the java 9+ version, which works on Latin-1 bytes)
+        assertEquals(engine.translate("AC\u20acGT"), "TG\u20acCA");
+
+        String input = Contest.generateInput(3 * ComplementKernel.WORK_SIZE_THRESHOLD);
+        char[] expected = input.toCharArray();
+        ComplementKernel.complementRange(expected, 0, expected.length);
+        assertEquals(engine.translateParallel(input, new ForkJoinPool(2)), new String(expected));
+        assertEquals(engine.translateParallel(input + "\u20ac", new ForkJoinPool(2)), new String(expected) + "\u20ac");
+    }
+
+    @Test
+    public void testCli() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ComplementCli cli = new ComplementCli("sequential", 1, "none", "transcribe");
+        cli.run(new ByteArrayInputStream("ATTG\n".getBytes(StandardCharsets.US_ASCII)), out);
+        assertEquals(out.toString("US-ASCII"), "AUUG\n");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnknown() {
+        TranslationEngine.named("reverse");
+    }
+}